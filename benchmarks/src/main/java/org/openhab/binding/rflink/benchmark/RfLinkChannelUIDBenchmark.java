@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.benchmark;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.openhab.binding.rflink.RfLinkBindingConstants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ChannelUID of a channel update, as done by a Thing handler for each State published : built for each update, or
+ * looked up in the table the handler builds on initialization (RfLinkThingHandler.getChannelUID). Each operation
+ * resolves the next channel of a wind sensor.
+ *
+ * @author cartemere - Initial contribution
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RfLinkChannelUIDBenchmark {
+
+    private static final String[] CHANNELS = { RfLinkBindingConstants.CHANNEL_WIND_SPEED,
+            RfLinkBindingConstants.CHANNEL_WIND_DIRECTION, RfLinkBindingConstants.CHANNEL_AVERAGE_WIND_SPEED,
+            RfLinkBindingConstants.CHANNEL_GUST, RfLinkBindingConstants.CHANNEL_WIND_CHILL,
+            RfLinkBindingConstants.CHANNEL_SIGNAL_LEVEL, RfLinkBindingConstants.CHANNEL_BATTERY_LEVEL,
+            RfLinkBindingConstants.CHANNEL_LOW_BATTERY };
+
+    private ThingUID thingUID;
+    private Map<String, ChannelUID> channelUIDs;
+    private int channelIndex = 0;
+
+    @Setup
+    public void setup() {
+        ThingUID bridgeUID = new ThingUID(RfLinkBindingConstants.BRIDGE_MANUAL, "usb0");
+        thingUID = new ThingUID(RfLinkBindingConstants.THING_TYPE_WIND, bridgeUID, "Cresta-5c01");
+        // same table as the Thing handler
+        Map<String, ChannelUID> uids = new HashMap<>();
+        for (String channel : CHANNELS) {
+            uids.put(channel, new ChannelUID(thingUID, channel));
+        }
+        channelUIDs = Collections.unmodifiableMap(uids);
+    }
+
+    private String nextChannel() {
+        String channel = CHANNELS[channelIndex];
+        channelIndex = channelIndex + 1 == CHANNELS.length ? 0 : channelIndex + 1;
+        return channel;
+    }
+
+    /**
+     * A new ChannelUID for each update (before the table)
+     */
+    @Benchmark
+    public ChannelUID newChannelUID() {
+        return new ChannelUID(thingUID, nextChannel());
+    }
+
+    /**
+     * Lookup of the ChannelUID in the table of the Thing
+     */
+    @Benchmark
+    public ChannelUID cachedChannelUID() {
+        return channelUIDs.get(nextChannel());
+    }
+}
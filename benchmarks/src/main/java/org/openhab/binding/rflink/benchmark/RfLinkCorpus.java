@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Corpus of lines captured from RFLink gateways (corpus.txt), replayed by the benchmarks : weather sensors, switches,
+ * lights, RTS remotes and SHOW records, debug lines and gateway replies, in a realistic mix.
+ *
+ * @author cartemere - Initial contribution
+ */
+public final class RfLinkCorpus {
+
+    private static final String CORPUS = "/corpus.txt";
+    private static final String COMMENT = "#";
+
+    private static final List<String> LINES = load();
+
+    private RfLinkCorpus() {
+    }
+
+    private static List<String> load() {
+        List<String> lines = new ArrayList<>();
+        try (InputStream input = RfLinkCorpus.class.getResourceAsStream(CORPUS)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing corpus " + CORPUS);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.US_ASCII));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith(COMMENT)) {
+                    lines.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    /**
+     * @return all the lines of the corpus, in reception order
+     */
+    public static String[] lines() {
+        return LINES.toArray(new String[0]);
+    }
+
+    /**
+     * @param filter the lines to keep
+     * @return the lines of the corpus accepted by the filter, in reception order
+     */
+    public static String[] lines(Predicate<String> filter) {
+        return LINES.stream().filter(filter).toArray(String[]::new);
+    }
+
+    /**
+     * @param line a line of the corpus
+     * @return true for the RTS SHOW records (RTS Record: ...)
+     */
+    public static boolean isRtsShowLine(String line) {
+        return line.startsWith("RTS");
+    }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
+import org.openhab.binding.rflink.event.RfLinkDataParser;
+import org.openhab.binding.rflink.event.RfLinkEvent;
+import org.openhab.binding.rflink.event.RfLinkEventFactory;
+import org.openhab.binding.rflink.exceptions.RfLinkException;
+import org.openhab.binding.rflink.exceptions.RfLinkNotImpException;
+import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.openhab.binding.rflink.packet.RfLinkPacketType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of the parsed messages into channel States, as done by a Thing handler : each operation decodes the next
+ * device message of the corpus (lines from unsupported devices, debug lines and gateway replies excluded).
+ *
+ * @author cartemere - Initial contribution
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RfLinkDecodingBenchmark {
+
+    private static final String KEY_TEMPERATURE = "TEMP";
+
+    private RfLinkMessage[] messages;
+    private RfLinkDeviceConfiguration[] configurations;
+    // the raw (hexadecimal) temperatures of the corpus
+    private String[] temperatures;
+    private int messageIndex = 0;
+    private int temperatureIndex = 0;
+
+    @Setup
+    public void setup() {
+        List<RfLinkMessage> decodable = new ArrayList<>();
+        List<String> rawTemperatures = new ArrayList<>();
+        for (String line : RfLinkCorpus.lines()) {
+            RfLinkMessage message = new RfLinkMessage(new RfLinkPacket(RfLinkPacketType.INPUT, line, 0, 0));
+            if (message.isEligibleForProcessing() && isDecodable(message)) {
+                decodable.add(message);
+                if (message.getAttributes().containsKey(KEY_TEMPERATURE)) {
+                    rawTemperatures.add(message.getAttributes().get(KEY_TEMPERATURE));
+                }
+            }
+        }
+        messages = decodable.toArray(new RfLinkMessage[0]);
+        configurations = new RfLinkDeviceConfiguration[messages.length];
+        for (int i = 0; i < messages.length; i++) {
+            configurations[i] = new RfLinkDeviceConfiguration();
+            configurations[i].deviceId = messages[i].getDeviceKey();
+        }
+        temperatures = rawTemperatures.toArray(new String[0]);
+    }
+
+    private static boolean isDecodable(RfLinkMessage message) {
+        try {
+            RfLinkEventFactory.createEventFromMessage(message).initializeFromMessage(new RfLinkDeviceConfiguration(),
+                    message);
+            return true;
+        } catch (RfLinkException | RfLinkNotImpException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Classification of a message, decoding of its values and conversion to channel States
+     */
+    @Benchmark
+    public Map<String, org.eclipse.smarthome.core.types.State> decode()
+            throws RfLinkException, RfLinkNotImpException {
+        int index = messageIndex;
+        messageIndex = index + 1 == messages.length ? 0 : index + 1;
+        RfLinkEvent event = RfLinkEventFactory.createEventFromMessage(messages[index]);
+        event.initializeFromMessage(configurations[index], messages[index]);
+        return event.getStates();
+    }
+
+    /**
+     * Decoding of a raw temperature (signed hexadecimal tenths of degree)
+     */
+    @Benchmark
+    public double parseTemperature() {
+        String temperature = temperatures[temperatureIndex];
+        temperatureIndex = temperatureIndex + 1 == temperatures.length ? 0 : temperatureIndex + 1;
+        return RfLinkDataParser.parseHexaToSignedDecimal(temperature);
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.benchmark;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.openhab.binding.rflink.packet.RfLinkPacketType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the received lines into {@link RfLinkMessage}s : each operation parses the next line of the corpus.
+ *
+ * @author cartemere - Initial contribution
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RfLinkMessageBenchmark {
+
+    private String[] lines;
+    // the attributes part of the standard lines (after 20;XX;Protocol;)
+    private String[] attributes;
+    // a parsed device message
+    private RfLinkMessage message;
+    private int lineIndex = 0;
+    private int attributesIndex = 0;
+
+    @Setup
+    public void setup() {
+        lines = RfLinkCorpus.lines(line -> !RfLinkCorpus.isRtsShowLine(line));
+        attributes = Arrays.stream(lines).map(line -> line.split(RfLinkMessage.FIELDS_DELIMITER, 4))
+                .filter(elements -> elements.length == 4 && !elements[3].isEmpty()).map(elements -> elements[3])
+                .toArray(String[]::new);
+        message = Arrays.stream(lines)
+                .map(line -> new RfLinkMessage(new RfLinkPacket(RfLinkPacketType.INPUT, line, 0, 0)))
+                .filter(RfLinkMessage::isEligibleForProcessing).findFirst().get();
+    }
+
+    private String nextLine() {
+        String line = lines[lineIndex];
+        lineIndex = lineIndex + 1 == lines.length ? 0 : lineIndex + 1;
+        return line;
+    }
+
+    private String nextAttributes() {
+        String values = attributes[attributesIndex];
+        attributesIndex = attributesIndex + 1 == attributes.length ? 0 : attributesIndex + 1;
+        return values;
+    }
+
+    /**
+     * The whole parsing of a received line, as done by the bridge for each frame
+     */
+    @Benchmark
+    public RfLinkMessage newMessage() {
+        return new RfLinkMessage(new RfLinkPacket(RfLinkPacketType.INPUT, nextLine(), 0, 0));
+    }
+
+    /**
+     * The key=value split of the attributes of a line, the bulk of the parsing
+     */
+    @Benchmark
+    public Map<String, String> extractAttributes() {
+        Map<String, String> attributesMap = new HashMap<>();
+        message.extractAttributes(attributesMap, nextAttributes(), RfLinkMessage.FIELDS_DELIMITER,
+                RfLinkMessage.VALUE_DELIMITER);
+        return attributesMap;
+    }
+
+    /**
+     * The device key of a message, computed for each lookup of the Thing handling it
+     */
+    @Benchmark
+    public String deviceKey() {
+        return message.getDeviceKey();
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.openhab.binding.rflink.packet.RfLinkPacketType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Handling of the RTS SHOW records (RTS Record: N Address: XXXXXX RC: XXXX), received in a burst of 16 lines :
+ * each operation parses the next record of the corpus, and builds its discovery label when it is initialized.
+ *
+ * @author cartemere - Initial contribution
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RfLinkRtsShowBenchmark {
+
+    private String[] records;
+    private int recordIndex = 0;
+
+    @Setup
+    public void setup() {
+        records = RfLinkCorpus.lines(RfLinkCorpus::isRtsShowLine);
+    }
+
+    @Benchmark
+    public String parseRecord() {
+        String record = records[recordIndex];
+        recordIndex = recordIndex + 1 == records.length ? 0 : recordIndex + 1;
+        RfLinkMessage message = new RfLinkMessage(new RfLinkPacket(RfLinkPacketType.INPUT, record, 0, 0));
+        return message.isEligibleForDiscovery() ? message.getLabel() : null;
+    }
+}
@@ -0,0 +1,255 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.internal.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The JFR event types of the binding, and their commit. Shipped in the optional JFR fragment of the binding, built on
+ * JDK 11 : loaded by {@link RfLinkJfr} when the fragment is installed and the jdk.jfr API is available.
+ * <p/>
+ * The events are instant events, committed at the end of the stage they describe : the duration of the stage is
+ * carried by a field. They are enabled by default, and can be disabled (or filtered on a duration threshold) with the
+ * JFR settings, by event name (e.g. org.openhab.binding.rflink.FrameReceived).
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - moved to the JFR fragment
+ */
+public final class RfLinkJfrEvents implements RfLinkJfrSink {
+
+    private static final String EVENT_PREFIX = "org.openhab.binding.rflink.";
+    private static final String CATEGORY = "openHAB";
+    private static final String SUB_CATEGORY = "RFLink";
+    private static final String FIELD_DELIMITER = ";";
+    // RfLinkMessage.ID_DELIMITER (the fragment is built without the message classes)
+    private static final String ID_DELIMITER = "-";
+
+    public RfLinkJfrEvents() {
+    }
+
+    @Name(EVENT_PREFIX + "FrameReceived")
+    @Label("Frame Received")
+    @Description("Raw frame read from the transceiver")
+    @Category({ CATEGORY, SUB_CATEGORY })
+    @StackTrace(false)
+    public static class FrameReceived extends Event {
+        @Label("Direction")
+        String direction;
+        @Label("Frame")
+        String frame;
+        @Label("Framing Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long framingTime;
+    }
+
+    @Name(EVENT_PREFIX + "MessageParsed")
+    @Label("Message Parsed")
+    @Description("Frame decoded as a device message")
+    @Category({ CATEGORY, SUB_CATEGORY })
+    @StackTrace(false)
+    public static class MessageParsed extends Event {
+        @Label("Device Key")
+        String deviceKey;
+        @Label("Protocol")
+        String protocol;
+        @Label("Parse Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long parseTime;
+    }
+
+    @Name(EVENT_PREFIX + "EventClassified")
+    @Label("Event Classified")
+    @Description("Device message converted to a typed event by its Thing")
+    @Category({ CATEGORY, SUB_CATEGORY })
+    @StackTrace(false)
+    public static class EventClassified extends Event {
+        @Label("Device Key")
+        String deviceKey;
+        @Label("Protocol")
+        String protocol;
+        @Label("Event Type")
+        String eventType;
+        @Label("Classify Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long classifyTime;
+    }
+
+    @Name(EVENT_PREFIX + "StatePublished")
+    @Label("State Published")
+    @Description("Channel State published to the framework")
+    @Category({ CATEGORY, SUB_CATEGORY })
+    @StackTrace(false)
+    public static class StatePublished extends Event {
+        @Label("Device Key")
+        String deviceKey;
+        @Label("Channel")
+        String channel;
+        @Label("State")
+        String state;
+        @Label("Publish Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long publishTime;
+    }
+
+    @Name(EVENT_PREFIX + "TxEnqueued")
+    @Label("TX Enqueued")
+    @Description("Batch of packets queued for transmission")
+    @Category({ CATEGORY, SUB_CATEGORY })
+    @StackTrace(false)
+    public static class TxEnqueued extends Event {
+        @Label("Device Key")
+        String deviceKey;
+        @Label("Protocol")
+        String protocol;
+        @Label("Packets")
+        int packets;
+        @Label("Queue Depth")
+        int queueDepth;
+    }
+
+    @Name(EVENT_PREFIX + "TxWritten")
+    @Label("TX Written")
+    @Description("Packet written to the transceiver")
+    @Category({ CATEGORY, SUB_CATEGORY })
+    @StackTrace(false)
+    public static class TxWritten extends Event {
+        @Label("Device Key")
+        String deviceKey;
+        @Label("Protocol")
+        String protocol;
+        @Label("Frame")
+        String frame;
+        @Label("Queue Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long queueTime;
+        @Label("Wire Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long wireTime;
+    }
+
+    @Name(EVENT_PREFIX + "AckReceived")
+    @Label("Ack Received")
+    @Description("Acknowledgement of a packet by the transceiver")
+    @Category({ CATEGORY, SUB_CATEGORY })
+    @StackTrace(false)
+    public static class AckReceived extends Event {
+        @Label("Device Key")
+        String deviceKey;
+        @Label("Protocol")
+        String protocol;
+        @Label("Ack")
+        String ack;
+        @Label("Ack Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long ackTime;
+    }
+
+    @Override
+    public void frameReceived(Object direction, String frame, long framingNanos) {
+        FrameReceived event = new FrameReceived();
+        if (event.isEnabled()) {
+            event.direction = String.valueOf(direction);
+            event.frame = frame;
+            event.framingTime = framingNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void messageParsed(String deviceKey, String protocol, long parseNanos) {
+        MessageParsed event = new MessageParsed();
+        if (event.isEnabled()) {
+            event.deviceKey = deviceKey;
+            event.protocol = protocol;
+            event.parseTime = parseNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void eventClassified(String deviceKey, String protocol, Object rfLinkEvent, long classifyNanos) {
+        EventClassified event = new EventClassified();
+        if (event.isEnabled()) {
+            event.deviceKey = deviceKey;
+            event.protocol = protocol;
+            event.eventType = rfLinkEvent == null ? null : rfLinkEvent.getClass().getSimpleName();
+            event.classifyTime = classifyNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void statePublished(String deviceKey, String channelId, Object state, long publishNanos) {
+        StatePublished event = new StatePublished();
+        if (event.isEnabled()) {
+            event.deviceKey = deviceKey;
+            event.channel = channelId;
+            event.state = String.valueOf(state);
+            event.publishTime = publishNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void txEnqueued(String frame, int packets, int queueDepth) {
+        TxEnqueued event = new TxEnqueued();
+        if (event.isEnabled()) {
+            String[] fields = splitOutputFrame(frame);
+            event.protocol = fields[0];
+            event.deviceKey = fields[1];
+            event.packets = packets;
+            event.queueDepth = queueDepth;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void txWritten(String frame, long queueNanos, long wireNanos) {
+        TxWritten event = new TxWritten();
+        if (event.isEnabled()) {
+            String[] fields = splitOutputFrame(frame);
+            event.protocol = fields[0];
+            event.deviceKey = fields[1];
+            event.frame = frame;
+            event.queueTime = queueNanos;
+            event.wireTime = wireNanos;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void ackReceived(String frame, String ack, long ackNanos) {
+        AckReceived event = new AckReceived();
+        if (event.isEnabled()) {
+            String[] fields = splitOutputFrame(frame);
+            event.protocol = fields[0];
+            event.deviceKey = fields[1];
+            event.ack = ack;
+            event.ackTime = ackNanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param frame an output frame (10;PROTOCOL;ID;...)
+     * @return the protocol and the device key of the frame (null if not found)
+     */
+    private static String[] splitOutputFrame(String frame) {
+        String[] fields = frame == null ? new String[0] : frame.split(FIELD_DELIMITER);
+        String protocol = fields.length > 1 ? fields[1] : null;
+        String deviceKey = fields.length > 2 ? protocol + ID_DELIMITER + fields[2] : null;
+        return new String[] { protocol, deviceKey };
+    }
+}
@@ -78,6 +78,28 @@ public class RfLinkBindingConstants {
     public final static String CHANNEL_VOLTAGE = "voltage";
     public final static String CHANNEL_SET_POINT = "setpoint";
     public final static String CHANNEL_OBSERVATION_TIME = "observationTime";
+    public final static String CHANNEL_EXPECTED_FINISH = "expectedFinish";
+    public final static String CHANNEL_CENSUS = "census";
+    public final static String CHANNEL_FLIGHT_RECORDER = "flightRecorder";
+    public final static String CHANNEL_LOSS_RATE = "lossRate";
+    public final static String CHANNEL_FRAMES_BY_PROTOCOL = "framesByProtocol";
+    public final static String CHANNEL_DROPPED_BY_PROTOCOL = "droppedByProtocol";
+    public final static String CHANNEL_DUPLICATES_BY_PROTOCOL = "duplicatesByProtocol";
+    public final static String CHANNEL_DISCOVERY_QUEUE_DEPTH = "discoveryQueueDepth";
+    public final static String CHANNEL_DISCOVERY_QUEUE_MAX_DEPTH = "discoveryQueueMaxDepth";
+    public final static String CHANNEL_DISCOVERY_DROPPED = "discoveryDropped";
+    public final static String CHANNEL_PUBLISH_BATCHING_RATIO = "publishBatchingRatio";
+
+    // List of all aggregated Channel ids (mean/min/max over the aggregation window)
+    public final static String CHANNEL_INSTANT_POWER_MEAN = "instantPowerMean";
+    public final static String CHANNEL_INSTANT_POWER_MIN = "instantPowerMin";
+    public final static String CHANNEL_INSTANT_POWER_MAX = "instantPowerMax";
+    public final static String CHANNEL_WIND_SPEED_MEAN = "windSpeedMean";
+    public final static String CHANNEL_WIND_SPEED_MIN = "windSpeedMin";
+    public final static String CHANNEL_WIND_SPEED_MAX = "windSpeedMax";
+    public final static String CHANNEL_RAIN_RATE_MEAN = "rainRateMean";
+    public final static String CHANNEL_RAIN_RATE_MIN = "rainRateMin";
+    public final static String CHANNEL_RAIN_RATE_MAX = "rainRateMax";
 
     // List of all Thing Type UIDs
     public final static ThingTypeUID THING_TYPE_SWITCH = new ThingTypeUID(BINDING_ID, "switch");
@@ -89,9 +111,17 @@ public class RfLinkBindingConstants {
     public final static ThingTypeUID THING_TYPE_RTS = new ThingTypeUID(BINDING_ID, "rts");
     public final static ThingTypeUID THING_TYPE_OREGONTEMPHYGRO = new ThingTypeUID(BINDING_ID, "OregonTempHygro");
     public final static ThingTypeUID THING_TYPE_COLOR = new ThingTypeUID(BINDING_ID, "color");
+    public final static ThingTypeUID THING_TYPE_RTS_GROUP = new ThingTypeUID(BINDING_ID, "rtsgroup");
 
     // Presents all supported Thing types by RFLink binding.
     public final static Set<ThingTypeUID> SUPPORTED_DEVICE_THING_TYPES_UIDS = ImmutableSet.of(THING_TYPE_ENERGY,
             THING_TYPE_WIND, THING_TYPE_SWITCH, THING_TYPE_RAIN, THING_TYPE_TEMPERATURE, THING_TYPE_RTS,
             THING_TYPE_HUMIDITY, THING_TYPE_OREGONTEMPHYGRO, THING_TYPE_COLOR);
+
+    // Thing types only reporting measures (their States get stale when the device stops transmitting)
+    public final static Set<ThingTypeUID> SENSOR_THING_TYPES_UIDS = ImmutableSet.of(THING_TYPE_ENERGY, THING_TYPE_WIND,
+            THING_TYPE_RAIN, THING_TYPE_TEMPERATURE, THING_TYPE_HUMIDITY, THING_TYPE_OREGONTEMPHYGRO);
+
+    // Presents all supported virtual Thing types (not bound to a single device, never discovered)
+    public final static Set<ThingTypeUID> SUPPORTED_GROUP_THING_TYPES_UIDS = ImmutableSet.of(THING_TYPE_RTS_GROUP);
 }
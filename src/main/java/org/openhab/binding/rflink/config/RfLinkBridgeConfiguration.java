@@ -8,6 +8,8 @@
  */
 package org.openhab.binding.rflink.config;
 
+import java.util.Objects;
+
 import org.openhab.binding.rflink.RfLinkBindingConstants;
 
 /**
@@ -15,6 +17,17 @@ import org.openhab.binding.rflink.RfLinkBindingConstants;
  *
  * @author Cyril Cauchois - Initial contribution
  * @author Marvyn Zalewski - added disableDiscovery Configuration
+ * @author cartemere - added discoveryResultTtl Configuration
+ * @author cartemere - added discovery ignore/allow rules
+ * @author cartemere - added duplicateWindow Configuration
+ * @author cartemere - added publishBatchWindow Configuration
+ * @author cartemere - added persistColorState Configuration
+ * @author cartemere - added persistState Configuration
+ * @author cartemere - added metricsInterval Configuration
+ * @author cartemere - added censusSize Configuration
+ * @author cartemere - added flightRecorderSize Configuration
+ * @author cartemere - added lossWarningThreshold Configuration
+ * @author cartemere - added persistStateMaxAge Configuration
  */
 public class RfLinkBridgeConfiguration {
 
@@ -32,4 +45,46 @@ public class RfLinkBridgeConfiguration {
 
     // Prevent unknown devices from being added to the inbox
     public boolean disableDiscovery;
+
+    // Period (in seconds) before re-announcing an already discovered device to the inbox (0 = always announce)
+    public int discoveryResultTtl = 3600;
+
+    // Device key patterns to ignore on discovery (',' as separator)
+    public String discoveryIgnore;
+
+    // Device key patterns to discover, even if they match an ignore pattern (',' as separator)
+    public String discoveryAllow;
+
+    // Period (in milliseconds) during which the repeated copies of a frame are suppressed (0 = disabled)
+    public int duplicateWindow = 300;
+
+    // Period (in milliseconds) during which the State updates of a Thing are batched (0 = published immediately)
+    public int publishBatchWindow = 0;
+
+    // Save the last known channel States of the Things, to restore them on restart
+    public boolean persistState = false;
+
+    // Age (in seconds) above which the saved sensor States are not restored (0 = no limit)
+    public int persistStateMaxAge = 3600;
+
+    // Period (in seconds) between two updates of the activity counters channels (0 = disabled)
+    public int metricsInterval = 60;
+
+    // Maximum number of RF devices in the census (0 = disabled)
+    public int censusSize = 4096;
+
+    // Number of raw frames kept by the flight recorder (0 = disabled)
+    public int flightRecorderSize = 1024;
+
+    // Rate (in percent) of lost lines over a metrics interval above which a warning is logged (0 = disabled)
+    public double lossWarningThreshold = 0;
+
+    /**
+     * @param other another configuration
+     * @return true if the other configuration can be applied without reconnecting the bridge
+     */
+    public boolean isSameConnectionAs(RfLinkBridgeConfiguration other) {
+        return other != null && Objects.equals(serialPort, other.serialPort) && baudRate == other.baudRate
+                && keepAlivePeriod == other.keepAlivePeriod;
+    }
 }
@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.config;
+
+/**
+ * Configuration class for {@link RfLinkBinding} numeric sensor channels.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkChannelConfiguration {
+
+    // absolute dead-band : changes smaller than this value are not published
+    public double deadband = 0;
+
+    // relative dead-band : changes smaller than this percentage of the published value are not published
+    public double deadbandPercent = 0;
+
+    // minimum period (in seconds) between two published values
+    public int minInterval = 0;
+
+    @Override
+    public String toString() {
+        return "RfLinkChannelConfiguration [deadband=" + deadband + ", deadbandPercent=" + deadbandPercent
+                + ", minInterval=" + minInterval + "s]";
+    }
+
+    public boolean isFilterEnabled() {
+        return deadband > 0 || deadbandPercent > 0 || minInterval > 0;
+    }
+}
@@ -8,6 +8,8 @@
  */
 package org.openhab.binding.rflink.config;
 
+import org.openhab.binding.rflink.RfLinkBindingConstants;
+
 /**
  * Configuration class for {@link RfLinkBinding} device.
  *
@@ -31,6 +33,20 @@ public class RfLinkDeviceConfiguration {
     // shutter duration (in seconds) for RTS shutter position tracking
     public int shutterDuration = 0;
 
+    // position step (in percent) between two published positions of a moving RTS shutter
+    public int positionStep = 5;
+
+    // period (in seconds) after which an unchanged State is published again (0 = never)
+    public int stateRefreshInterval = 0;
+
+    // channels updated on every message, even if unchanged (',' as separator, '*' for all channels) : by default the
+    // event like channels, where a repeated State is a new event (a remote button pressed again, a motion detected)
+    public String alwaysUpdatedChannels = RfLinkBindingConstants.CHANNEL_COMMAND + ","
+            + RfLinkBindingConstants.CHANNEL_CONTACT;
+
+    // tumbling window (in seconds) to aggregate the high rate sensor values (0 = disabled)
+    public int aggregationWindow = 0;
+
     @Override
     public String toString() {
         return "RfLinkDeviceConfiguration[" + deviceId + "] x" + repeats + " " + (isCommandReversed ? "reversed " : "")
@@ -45,4 +61,8 @@ public class RfLinkDeviceConfiguration {
         return shutterDuration > 0;
     }
 
+    public boolean isAggregationEnabled() {
+        return aggregationWindow > 0;
+    }
+
 }
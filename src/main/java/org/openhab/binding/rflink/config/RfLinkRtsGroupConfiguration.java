@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Configuration class for the RTS group Thing.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkRtsGroupConfiguration {
+
+    // deviceId of the RTS devices of the group (',' as separator), in transmission order
+    public String members;
+
+    /**
+     * @return the deviceId of the members, in transmission order (empty if none)
+     */
+    public List<String> getMemberIds() {
+        if (members == null) {
+            return Collections.emptyList();
+        }
+        List<String> memberIds = new ArrayList<>();
+        for (String member : members.split(",")) {
+            String memberId = member.trim();
+            if (!memberId.isEmpty() && !memberIds.contains(memberId)) {
+                memberIds.add(memberId);
+            }
+        }
+        return memberIds;
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkRtsGroupConfiguration[" + members + "]";
+    }
+}
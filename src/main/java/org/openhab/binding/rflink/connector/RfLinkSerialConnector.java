@@ -36,6 +36,10 @@ import gnu.io.SerialPortEventListener;
  *
  * @author Cyril Cauchois - Initial contribution
  * @author Arjan Mels - Added 200ms pause between messages to improve communication
+ * @author cartemere - stamp the received frames
+ * @author cartemere - stamp the framing start
+ * @author cartemere - stamp the sent packets
+ * @author cartemere - framing start stamped on the data available event
  */
 public class RfLinkSerialConnector implements RfLinkConnectorInterface, SerialPortEventListener {
 
@@ -55,7 +59,7 @@ public class RfLinkSerialConnector implements RfLinkConnectorInterface, SerialPo
     private static final int TIME_OUT = 2000;
 
     // delay between messages
-    private static final int SEND_DELAY = 50;
+    public static final int SEND_DELAY = 50;
 
     private static long lastSend = 0;
 
@@ -173,6 +177,7 @@ public class RfLinkSerialConnector implements RfLinkConnectorInterface, SerialPo
 
                 output.write(messageData);
                 output.flush();
+                packet.markSent();
                 lastSend = System.currentTimeMillis();
             }
         }
@@ -219,17 +224,27 @@ public class RfLinkSerialConnector implements RfLinkConnectorInterface, SerialPo
     @Override
     public void serialEvent(SerialPortEvent oEvent) {
         if (oEvent.getEventType() == SerialPortEvent.DATA_AVAILABLE) {
+            // the first characters of the frame have just arrived : the reader buffers them on its first read, so the
+            // framing starts now, and excludes the idle time before the frame
+            long frameStartNanos = System.nanoTime();
             try {
-                boolean hasData = true;
-                while (hasData) {
+                do {
                     String inputLine = input.readLine();
                     if (inputLine == null) {
-                        hasData = false;
-                    } else {
+                        break;
+                    }
+                    if (!inputLine.isEmpty()) {
+                        // stamp the frame as soon as it is framed, before any logging or processing
+                        long receivedNanos = System.nanoTime();
+                        long receivedMillis = System.currentTimeMillis();
                         logger.debug("<<< {}", inputLine);
-                        sendPacketToListeners(new RfLinkPacket(RfLinkPacketType.INPUT, inputLine));
+                        sendPacketToListeners(new RfLinkPacket(RfLinkPacketType.INPUT, inputLine, receivedNanos,
+                                receivedMillis, frameStartNanos));
                     }
-                }
+                    // characters of the next frame already received : it is framed right away, from now on.
+                    // Otherwise, the next frame starts on the next event
+                    frameStartNanos = System.nanoTime();
+                } while (input.ready());
             } catch (Exception e) {
                 logger.error("{}", e.toString());
             }
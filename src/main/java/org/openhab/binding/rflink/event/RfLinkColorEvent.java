@@ -38,6 +38,7 @@ import org.slf4j.LoggerFactory;
  * (Only tested with MiLight)
  *
  * @author Arjan Mels - Initial contribution
+ * @author cartemere - bridge scoped color state store
  */
 public class RfLinkColorEvent extends RfLinkAbstractEvent {
     private Logger logger = LoggerFactory.getLogger(RfLinkColorEvent.class);
@@ -52,11 +53,28 @@ public class RfLinkColorEvent extends RfLinkAbstractEvent {
     private HSBType stateColor = null;
     private OnOffType stateOnOff = null;
 
-    private static HashMap<String, HSBType> currentState = new HashMap<>();
+    private RfLinkColorStateStore stateStore = null;
 
     public RfLinkColorEvent() {
     }
 
+    /**
+     * @param stateStore the last known colors of the Bridge devices (the current color is not tracked if not set)
+     */
+    public void setStateStore(RfLinkColorStateStore stateStore) {
+        this.stateStore = stateStore;
+    }
+
+    private HSBType getCurrentState() {
+        return stateStore == null ? null : stateStore.get(getKey());
+    }
+
+    private void setCurrentState(HSBType color) {
+        if (stateStore != null) {
+            stateStore.put(getKey(), color);
+        }
+    }
+
     @Override
     public ThingTypeUID getThingType() {
         return RfLinkBindingConstants.THING_TYPE_COLOR;
@@ -105,7 +123,7 @@ public class RfLinkColorEvent extends RfLinkAbstractEvent {
             stateColor = new HSBType(new DecimalType(((color * 360 / 255) + 360 - COLOR_OFFSET) % 360),
                     new PercentType(100), new PercentType(brightness * 100 / 255));
         }
-        currentState.put(getKey(), stateColor);
+        setCurrentState(stateColor);
 
         if (values.containsKey(KEY_CMD)) {
             switch (values.get(KEY_CMD)) {
@@ -138,11 +156,11 @@ public class RfLinkColorEvent extends RfLinkAbstractEvent {
         super.initializeFromChannel(config, channelUID, triggeredCommand);
 
         logger.debug("Color initializeFromChannel: deviceid={}, state={}, class={}, command={}", getKey(),
-                currentState.get(getKey()), triggeredCommand.getClass().getSimpleName(), triggeredCommand);
+                getCurrentState(), triggeredCommand.getClass().getSimpleName(), triggeredCommand);
 
         command = triggeredCommand;
 
-        stateColor = currentState.get(getKey());
+        stateColor = getCurrentState();
         if (command instanceof HSBType) {
             // HSBType is subclass of PercentType, so must handle before PercentType
             logger.debug("Color initializeFromChannel: HSB command={}", command);
@@ -176,7 +194,7 @@ public class RfLinkColorEvent extends RfLinkAbstractEvent {
         } else {
             logger.debug("Color initializeFromChannel: Other command={}", command);
         }
-        currentState.put(getKey(), stateColor);
+        setCurrentState(stateColor);
         logger.debug("Color initializeFromChannel: state={}", stateColor);
     }
 
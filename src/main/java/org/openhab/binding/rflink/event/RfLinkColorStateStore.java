@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.event;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.smarthome.core.library.types.HSBType;
+
+/**
+ * Last known color of the color devices of a Bridge, used to build the next command (brightness change, etc.)
+ * <p/>
+ * The store is thread safe, and bounded : the colors of the devices which are not bound to a Thing (e.g. the
+ * neighbours' remotes) are evicted once there are more than {@link #MAX_UNCONFIGURED_DEVICES} of them, the least
+ * recently used first. Device keys are case insensitive.
+ * <p/>
+ * The colors of the Things survive a restart through the state snapshot of the Bridge (see persistState) : the
+ * restored color channel is put back in the store.
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - least recently used eviction, persistence left to the state snapshot
+ */
+public class RfLinkColorStateStore {
+
+    public static final int MAX_UNCONFIGURED_DEVICES = 64;
+
+    // access ordered : the least recently used devices first
+    private final LinkedHashMap<String, HSBType> states = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> configuredKeys = ConcurrentHashMap.newKeySet();
+
+    private static String normalize(String deviceKey) {
+        return deviceKey.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param deviceKey the key of a device bound to a Thing : its color is never evicted
+     */
+    public void register(String deviceKey) {
+        configuredKeys.add(normalize(deviceKey));
+    }
+
+    /**
+     * @param deviceKey the key of a device not bound to a Thing anymore : its color may be evicted
+     */
+    public void unregister(String deviceKey) {
+        configuredKeys.remove(normalize(deviceKey));
+    }
+
+    public synchronized HSBType get(String deviceKey) {
+        return states.get(normalize(deviceKey));
+    }
+
+    /**
+     * @param deviceKey the device key
+     * @param color     the last known color of the device, null if unknown
+     */
+    public synchronized void put(String deviceKey, HSBType color) {
+        String key = normalize(deviceKey);
+        if (color == null) {
+            states.remove(key);
+        } else {
+            states.put(key, color);
+            if (states.size() > configuredKeys.size() + MAX_UNCONFIGURED_DEVICES) {
+                evictUnconfiguredDevices(key);
+            }
+        }
+    }
+
+    private void evictUnconfiguredDevices(String keptKey) {
+        Iterator<String> iterator = states.keySet().iterator();
+        while (iterator.hasNext() && states.size() > configuredKeys.size() + MAX_UNCONFIGURED_DEVICES) {
+            String key = iterator.next();
+            if (!key.equals(keptKey) && !configuredKeys.contains(key)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return states.size();
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkColorStateStore [size=" + size() + ", configured=" + configuredKeys.size() + "]";
+    }
+}
@@ -11,17 +11,18 @@ package org.openhab.binding.rflink.event;
 import java.util.HashMap;
 import java.util.Map;
 
-import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
 import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.type.RfLinkStateCache;
 
 /**
  * RfLink data class for humidity message.
  *
  * @author Marvyn Zalewski - Initial contribution
+ * @author cartemere - use shared States for bounded values
  */
 
 public class RfLinkHumidityEvent extends RfLinkAbstractEvent {
@@ -49,7 +50,7 @@ public class RfLinkHumidityEvent extends RfLinkAbstractEvent {
     @Override
     public Map<String, State> getStates() {
         Map<String, State> map = new HashMap<>();
-        map.put(RfLinkBindingConstants.CHANNEL_HUMIDITY, new DecimalType(humidity));
+        map.put(RfLinkBindingConstants.CHANNEL_HUMIDITY, RfLinkStateCache.getDecimal(humidity));
         return map;
     }
 
@@ -15,17 +15,18 @@ import java.util.List;
 import java.util.Map;
 import java.util.function.Predicate;
 
-import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
 import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.type.RfLinkStateCache;
 
 /**
  * RfLink data class for rain message.
  *
  * @author Cyril Cauchois - Initial contribution
+ * @author cartemere - use shared States for bounded values
  */
 public class RfLinkRainEvent extends RfLinkAbstractEvent {
 
@@ -54,7 +55,7 @@ public class RfLinkRainEvent extends RfLinkAbstractEvent {
             rain = RfLinkDataParser.parseHexaToUnsignedInt(values.get(KEY_RAIN));
         }
         if (values.containsKey(KEY_RAIN_RATE)) {
-            rainRate = RfLinkDataParser.parseHexaToUnsignedInt(values.get(KEY_RAIN));
+            rainRate = RfLinkDataParser.parseHexaToUnsignedInt(values.get(KEY_RAIN_RATE));
         }
     }
 
@@ -68,8 +69,8 @@ public class RfLinkRainEvent extends RfLinkAbstractEvent {
     @Override
     public Map<String, State> getStates() {
         Map<String, State> map = new HashMap<>();
-        map.put(RfLinkBindingConstants.CHANNEL_RAIN_TOTAL, new DecimalType(rain));
-        map.put(RfLinkBindingConstants.CHANNEL_RAIN_RATE, new DecimalType(rainRate));
+        map.put(RfLinkBindingConstants.CHANNEL_RAIN_TOTAL, RfLinkStateCache.getDecimal(rain));
+        map.put(RfLinkBindingConstants.CHANNEL_RAIN_RATE, RfLinkStateCache.getDecimal(rainRate));
         return map;
     }
 
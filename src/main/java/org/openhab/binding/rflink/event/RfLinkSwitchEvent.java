@@ -29,6 +29,7 @@ import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
 import org.openhab.binding.rflink.exceptions.RfLinkException;
 import org.openhab.binding.rflink.exceptions.RfLinkNotImpException;
 import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.type.RfLinkStateCache;
 import org.openhab.binding.rflink.type.RfLinkTypeUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,7 @@ import org.slf4j.LoggerFactory;
  * @author John Jore - Added channel for Contacts
  * @author Arjan Mels - Simplified by using system OnOffType and OpenClosedType
  * @author John Jore - Simplification breaks "Contacts" as RfLink outputs OFF/ON, not OPEN/CLOSED. Reverted
+ * @author cartemere - use shared States for bounded values
  */
 public class RfLinkSwitchEvent extends RfLinkAbstractEvent {
     private static final String KEY_SWITCH = "SWITCH";
@@ -89,7 +91,7 @@ public class RfLinkSwitchEvent extends RfLinkAbstractEvent {
                 // no explicit command set, try to parse Dimming
                 Integer dimmingValue = getDimmingValue(values.get(KEY_CMD));
                 if (dimmingValue != null) {
-                    dimming = new DecimalType(dimmingValue);
+                    dimming = RfLinkStateCache.getDecimal(dimmingValue);
                     command = RfLinkTypeUtils.getOnOffCommandFromDimming((DecimalType) dimming);
                 }
             }
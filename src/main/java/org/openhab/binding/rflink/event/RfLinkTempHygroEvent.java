@@ -19,7 +19,6 @@ import java.util.function.Predicate;
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.OnOffType;
-import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.thing.ThingTypeUID;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.State;
@@ -27,11 +26,14 @@ import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
 import org.openhab.binding.rflink.exceptions.RfLinkException;
 import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.type.RfLinkStateCache;
 
 /**
  * RfLink data class for temperature message.
  *
  * @author Marek Majchrowski - Initial contribution
+ * @author cartemere - observation time is the frame arrival time
+ * @author cartemere - use shared States for bounded values
  */
 
 public class RfLinkTempHygroEvent extends RfLinkAbstractEvent {
@@ -154,10 +156,12 @@ public class RfLinkTempHygroEvent extends RfLinkAbstractEvent {
     @Override
     public Map<String, State> getStates() {
         Map<String, State> map = new HashMap<>();
-        map.put(RfLinkBindingConstants.CHANNEL_OBSERVATION_TIME, new DateTimeType(Calendar.getInstance()));
+        Calendar observationTime = Calendar.getInstance();
+        observationTime.setTimeInMillis(getMessage().getReceivedMillis());
+        map.put(RfLinkBindingConstants.CHANNEL_OBSERVATION_TIME, new DateTimeType(observationTime));
         map.put(RfLinkBindingConstants.CHANNEL_TEMPERATURE, new DecimalType(this.temperature));
-        map.put(RfLinkBindingConstants.CHANNEL_HUMIDITY, new DecimalType(this.humidity));
-        map.put(RfLinkBindingConstants.CHANNEL_HUMIDITY_STATUS, new StringType(this.humidity_status));
+        map.put(RfLinkBindingConstants.CHANNEL_HUMIDITY, RfLinkStateCache.getDecimal(this.humidity));
+        map.put(RfLinkBindingConstants.CHANNEL_HUMIDITY_STATUS, RfLinkStateCache.getString(this.humidity_status));
         if (this.battery_status.getOnOffType() != null) {
             map.put(RfLinkBindingConstants.CHANNEL_LOW_BATTERY, this.battery_status.getOnOffType());
         }
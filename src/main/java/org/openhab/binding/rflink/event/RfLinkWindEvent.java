@@ -21,11 +21,13 @@ import org.eclipse.smarthome.core.types.State;
 import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
 import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.type.RfLinkStateCache;
 
 /**
  * RfLink data class for wind message.
  *
  * @author Cyril Cauchois - Initial contribution
+ * @author cartemere - use shared States for bounded values
  */
 public class RfLinkWindEvent extends RfLinkAbstractEvent {
 
@@ -91,10 +93,10 @@ public class RfLinkWindEvent extends RfLinkAbstractEvent {
     @Override
     public Map<String, State> getStates() {
         Map<String, State> map = new HashMap<>();
-        map.put(RfLinkBindingConstants.CHANNEL_WIND_SPEED, new DecimalType(windSpeed));
-        map.put(RfLinkBindingConstants.CHANNEL_WIND_DIRECTION, new DecimalType(windDirection));
+        map.put(RfLinkBindingConstants.CHANNEL_WIND_SPEED, RfLinkStateCache.getDecimal(windSpeed));
+        map.put(RfLinkBindingConstants.CHANNEL_WIND_DIRECTION, RfLinkStateCache.getDecimal(windDirection));
         map.put(RfLinkBindingConstants.CHANNEL_AVERAGE_WIND_SPEED, new DecimalType(averageWindSpeed));
-        map.put(RfLinkBindingConstants.CHANNEL_GUST, new DecimalType(windGust));
+        map.put(RfLinkBindingConstants.CHANNEL_GUST, RfLinkStateCache.getDecimal(windGust));
         map.put(RfLinkBindingConstants.CHANNEL_WIND_CHILL, new DecimalType(windChill));
         return map;
 
@@ -0,0 +1,236 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Census of the RF devices heard by a Bridge, configured or not : first and last seen times, packet count, mean
+ * inter-arrival time and protocol of each device key.
+ * <p/>
+ * The table is bounded : once full, the least recently seen device is evicted to make room for a new one. All the
+ * values are stored in primitive arrays (the keys are stored as bytes, truncated to {@link #MAX_KEY_LENGTH}), indexed
+ * by an open addressing hash table (linear probing) : recording a known device does not allocate, and 10000 devices
+ * cost about 700KB. The arrays are allocated up front for the whole capacity, bounded to {@link #MAX_CAPACITY}.
+ * <p/>
+ * Once the table is full, each new device scans the whole table to find the least recently seen one : this runs on
+ * the receiving thread, with the census locked, so a large capacity filled by a busy neighbourhood slows down the
+ * reception of the frames of new devices (about 1 microsecond per 1000 devices).
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - bounded capacity
+ */
+public class RfLinkBridgeCensus {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int MAX_CAPACITY = 65536;
+    public static final int MAX_KEY_LENGTH = 32;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int MAX_PROTOCOLS = 256;
+
+    private final int capacity;
+    private final int indexMask;
+    // hash slot > entry + 1 (0 = empty)
+    private final int[] index;
+    // entry > values
+    private final long[] keyHashes;
+    private final byte[] keys;
+    private final byte[] keyLengths;
+    private final long[] firstSeen;
+    private final long[] lastSeen;
+    private final int[] packetCounts;
+    private final byte[] protocols;
+    private int size = 0;
+
+    private final List<String> protocolNames = new ArrayList<>();
+    private final Map<String, Integer> protocolIndexes = new HashMap<>();
+
+    public RfLinkBridgeCensus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the maximum number of devices in the census (bounded to {@link #MAX_CAPACITY})
+     */
+    public RfLinkBridgeCensus(int capacity) {
+        this.capacity = Math.min(Math.max(capacity, 1), MAX_CAPACITY);
+        int indexSize = Integer.highestOneBit(this.capacity * 4 - 1);
+        this.indexMask = indexSize - 1;
+        this.index = new int[indexSize];
+        this.keyHashes = new long[this.capacity];
+        this.keys = new byte[this.capacity * MAX_KEY_LENGTH];
+        this.keyLengths = new byte[this.capacity];
+        this.firstSeen = new long[this.capacity];
+        this.lastSeen = new long[this.capacity];
+        this.packetCounts = new int[this.capacity];
+        this.protocols = new byte[this.capacity];
+    }
+
+    private static long hash(String deviceKey) {
+        long hash = FNV_OFFSET_BASIS;
+        for (int i = 0; i < deviceKey.length(); i++) {
+            hash ^= Character.toLowerCase(deviceKey.charAt(i));
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private int slotOf(long hash) {
+        return (int) (hash ^ (hash >>> 32)) & indexMask;
+    }
+
+    /**
+     * Count a packet received from a device
+     *
+     * @param deviceKey    the device key (case insensitive)
+     * @param protocol     the protocol of the packet
+     * @param receivedTime the (wall clock) reception time of the packet
+     */
+    public synchronized void record(String deviceKey, String protocol, long receivedTime) {
+        if (deviceKey == null) {
+            return;
+        }
+        long hash = hash(deviceKey);
+        int slot = slotOf(hash);
+        int entry;
+        while ((entry = index[slot] - 1) >= 0 && keyHashes[entry] != hash) {
+            slot = (slot + 1) & indexMask;
+        }
+        if (entry < 0) {
+            entry = size < capacity ? size++ : evictLeastRecentlySeen();
+            // the eviction may have moved the free slot
+            slot = slotOf(hash);
+            while (index[slot] != 0) {
+                slot = (slot + 1) & indexMask;
+            }
+            index[slot] = entry + 1;
+            keyHashes[entry] = hash;
+            byte[] key = deviceKey.getBytes(StandardCharsets.UTF_8);
+            int length = Math.min(key.length, MAX_KEY_LENGTH);
+            System.arraycopy(key, 0, keys, entry * MAX_KEY_LENGTH, length);
+            keyLengths[entry] = (byte) length;
+            firstSeen[entry] = receivedTime;
+            packetCounts[entry] = 0;
+            protocols[entry] = (byte) getProtocolIndex(protocol);
+        }
+        lastSeen[entry] = receivedTime;
+        if (packetCounts[entry] < Integer.MAX_VALUE) {
+            packetCounts[entry]++;
+        }
+    }
+
+    private int getProtocolIndex(String protocol) {
+        String name = protocol == null ? "" : protocol;
+        Integer protocolIndex = protocolIndexes.get(name);
+        if (protocolIndex == null) {
+            if (protocolNames.size() >= MAX_PROTOCOLS) {
+                return 0;
+            }
+            protocolIndex = protocolNames.size();
+            protocolNames.add(name);
+            protocolIndexes.put(name, protocolIndex);
+        }
+        return protocolIndex;
+    }
+
+    // linear scan of the whole table : only run when the table is full, for a device not in the census
+    private int evictLeastRecentlySeen() {
+        int evicted = 0;
+        for (int entry = 1; entry < capacity; entry++) {
+            if (lastSeen[entry] < lastSeen[evicted]) {
+                evicted = entry;
+            }
+        }
+        int slot = slotOf(keyHashes[evicted]);
+        while (index[slot] != evicted + 1) {
+            slot = (slot + 1) & indexMask;
+        }
+        removeSlot(slot);
+        return evicted;
+    }
+
+    private void removeSlot(int slot) {
+        // backward shift deletion : keep the probe sequences of the following slots unbroken
+        int free = slot;
+        int next = (free + 1) & indexMask;
+        while (index[next] != 0) {
+            int home = slotOf(keyHashes[index[next] - 1]);
+            if (((next - home) & indexMask) >= ((next - free) & indexMask)) {
+                index[free] = index[next];
+                free = next;
+            }
+            next = (next + 1) & indexMask;
+        }
+        index[free] = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(index, 0);
+        size = 0;
+    }
+
+    /**
+     * @param limit        maximum number of devices to report
+     * @param isConfigured tells if a device key is bound to a Thing
+     * @return the census of the devices with the most packets, as a JSON array
+     */
+    public String toJson(int limit, Predicate<String> isConfigured) {
+        List<Object[]> devices = new ArrayList<>();
+        synchronized (this) {
+            Integer[] entries = new Integer[size];
+            for (int entry = 0; entry < size; entry++) {
+                entries[entry] = entry;
+            }
+            Arrays.sort(entries, (e1, e2) -> Integer.compare(packetCounts[e2], packetCounts[e1]));
+            for (int i = 0; i < Math.min(limit, size); i++) {
+                int entry = entries[i];
+                String key = new String(keys, entry * MAX_KEY_LENGTH, keyLengths[entry], StandardCharsets.UTF_8);
+                long meanInterval = packetCounts[entry] > 1
+                        ? (lastSeen[entry] - firstSeen[entry]) / (packetCounts[entry] - 1)
+                        : 0;
+                devices.add(new Object[] { key, protocolNames.get(protocols[entry] & 0xFF), packetCounts[entry],
+                        firstSeen[entry], lastSeen[entry], meanInterval });
+            }
+        }
+        StringBuilder json = new StringBuilder("[");
+        for (Object[] device : devices) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append("{\"key\":\"").append(RfLinkBridgeMetrics.escapeJson((String) device[0]))
+                    .append("\",\"protocol\":\"").append(RfLinkBridgeMetrics.escapeJson((String) device[1]))
+                    .append("\",\"configured\":")
+                    .append(isConfigured.test((String) device[0])).append(",\"packets\":").append(device[2])
+                    .append(",\"firstSeen\":").append(device[3]).append(",\"lastSeen\":").append(device[4])
+                    .append(",\"meanIntervalMillis\":").append(device[5]).append('}');
+        }
+        return json.append(']').toString();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RfLinkBridgeCensus [devices=" + size + "/" + capacity + ", protocols=" + protocolNames.size() + "]";
+    }
+}
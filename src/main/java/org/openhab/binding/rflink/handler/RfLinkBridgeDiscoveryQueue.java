@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openhab.binding.rflink.internal.discovery.RfLinkThingDiscoveryService;
+import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Low priority discovery stage : messages not claimed by any Thing are queued here, and handed to the
+ * {@link RfLinkThingDiscoveryService} by a dedicated worker thread.
+ * <p/>
+ * The queue is bounded and lossy : under load, discovery loses messages instead of delaying the configured Things.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkBridgeDiscoveryQueue {
+
+    public static final int DEFAULT_CAPACITY = 256;
+
+    private Logger logger = LoggerFactory.getLogger(RfLinkBridgeDiscoveryQueue.class);
+
+    private final RfLinkBridgeHandler bridge;
+    private final BlockingQueue<RfLinkMessage> queue;
+    private Thread worker = null;
+
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAccumulator maxDepth = new LongAccumulator(Long::max, 0);
+
+    public RfLinkBridgeDiscoveryQueue(RfLinkBridgeHandler bridge) {
+        this(bridge, DEFAULT_CAPACITY);
+    }
+
+    public RfLinkBridgeDiscoveryQueue(RfLinkBridgeHandler bridge, int capacity) {
+        this.bridge = bridge;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    public synchronized void start() {
+        if (worker == null) {
+            worker = new Thread(this::processQueue, "RfLink-discovery-" + bridge.getThing().getUID().getId());
+            worker.setPriority(Thread.MIN_PRIORITY);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    public synchronized void stop() {
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        queue.clear();
+    }
+
+    /**
+     * Push a message to discover, never blocks
+     *
+     * @param message the message not claimed by any Thing
+     * @return true if the message has been queued, false if it has been dropped (queue full)
+     */
+    public boolean offer(RfLinkMessage message) {
+        if (queue.offer(message)) {
+            queuedCount.increment();
+            maxDepth.accumulate(queue.size());
+            return true;
+        }
+        droppedCount.increment();
+        logger.trace("Discovery queue full, dropping {}", message);
+        return false;
+    }
+
+    private void processQueue() {
+        logger.debug("Discovery worker started on bridge {}", bridge.getThing().getUID());
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                discover(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                logger.error("Discovery failed on bridge {}", bridge.getThing().getUID(), e);
+            }
+        }
+        logger.debug("Discovery worker stopped on bridge {} : {}", bridge.getThing().getUID(), this);
+    }
+
+    private void discover(RfLinkMessage message) {
+        if (logger.isTraceEnabled()) {
+            logger.trace("Discovering {}, received {} us ago", message,
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - message.getReceivedNanos()));
+        }
+        RfLinkThingDiscoveryService discoveryService = bridge.getDiscoveryService();
+        if (discoveryService != null) {
+            discoveryService.discoverThing(bridge.getThing().getUID(), message);
+        }
+        processedCount.increment();
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    public long getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getQueuedCount() {
+        return queuedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getProcessedCount() {
+        return processedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkBridgeDiscoveryQueue [depth=" + getDepth() + ", maxDepth=" + getMaxDepth() + ", queued="
+                + getQueuedCount() + ", dropped=" + getDroppedCount() + ", processed=" + getProcessedCount() + "]";
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openhab.binding.rflink.message.RfLinkMessage;
+import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.openhab.binding.rflink.packet.RfLinkPacketType;
+
+/**
+ * Suppresses the repeated copies of a RF frame received on a Bridge.
+ * <p/>
+ * Most RF remotes and sensors send the same frame several times, and RFLink reports each copy as a new
+ * <code>20;xx;...</code> line (with a new sequence number). A frame is a duplicate when the last frame received from
+ * the same device had the same payload (protocol, device identifier and values, sequence number excluded), less than
+ * the configured window ago : a burst of copies is then handled as a single frame. The window starts at the first
+ * copy : a steady stream of identical frames still gets one frame through per window. Only the device frames (with an
+ * ID) are filtered : the gateway replies (20;xx;OK;) and debug lines always get through.
+ * <p/>
+ * The table is direct mapped on the device key hash, and keeps the payload hash of the last frame of each device :
+ * checking a frame does not allocate. A hash collision on a table slot only evicts the previous device (a duplicate
+ * may then get through).
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - one slot per device, only device frames
+ */
+public class RfLinkBridgeDuplicateFilter {
+
+    public static final int DEFAULT_WINDOW = 300;
+
+    private static final int TABLE_SIZE = 256; // power of 2
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final char FIELDS_DELIMITER = RfLinkMessage.FIELDS_DELIMITER.charAt(0);
+    // "20;xx;" : node number and sequence number
+    private static final int HEADER_FIELDS = 2;
+    // the fields of the device key, after the protocol
+    private static final String ID_FIELD = "ID=";
+    private static final String SWITCH_FIELD = "SWITCH=";
+    private static final long NO_DEVICE = 0;
+
+    private final long[] deviceHashes = new long[TABLE_SIZE];
+    private final long[] payloadHashes = new long[TABLE_SIZE];
+    private final long[] receivedAt = new long[TABLE_SIZE];
+    private volatile long windowNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_WINDOW);
+    private final Map<String, LongAdder> suppressedFramesByProtocol = new ConcurrentHashMap<>();
+
+    /**
+     * @param windowMillis period (in milliseconds) during which identical frames are suppressed (0 to disable)
+     */
+    public void setWindow(int windowMillis) {
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(windowMillis, 0));
+    }
+
+    /**
+     * Check if a packet is a copy of a recently received frame, and register it as received.
+     *
+     * @param packet the received packet
+     * @return true if the packet has to be dropped
+     */
+    public boolean isDuplicate(RfLinkPacket packet) {
+        return isDuplicate(packet, System.nanoTime());
+    }
+
+    boolean isDuplicate(RfLinkPacket packet, long now) {
+        long window = windowNanos;
+        if (window == 0 || packet.getType() != RfLinkPacketType.INPUT) {
+            return false;
+        }
+        String frame = packet.getPacket();
+        int payloadStart = getPayloadStart(frame);
+        if (payloadStart < 0) {
+            return false;
+        }
+        long deviceHash = hashDeviceKey(frame, payloadStart);
+        if (deviceHash == NO_DEVICE) {
+            // gateway reply or debug line
+            return false;
+        }
+        long payloadHash = hash(FNV_OFFSET_BASIS, frame, payloadStart, frame.length());
+        boolean duplicate;
+        synchronized (this) {
+            int slot = (int) (deviceHash ^ (deviceHash >>> 32)) & TABLE_MASK;
+            duplicate = deviceHashes[slot] == deviceHash && payloadHashes[slot] == payloadHash
+                    && now - receivedAt[slot] < window;
+            if (!duplicate) {
+                // the window starts at the first copy
+                deviceHashes[slot] = deviceHash;
+                payloadHashes[slot] = payloadHash;
+                receivedAt[slot] = now;
+            }
+        }
+        if (duplicate) {
+            countSuppressedFrame(frame, payloadStart);
+        }
+        return duplicate;
+    }
+
+    private static int getPayloadStart(String frame) {
+        int index = -1;
+        for (int field = 0; field < HEADER_FIELDS; field++) {
+            index = frame.indexOf(FIELDS_DELIMITER, index + 1);
+            if (index < 0) {
+                return -1;
+            }
+        }
+        return index + 1 < frame.length() ? index + 1 : -1;
+    }
+
+    /**
+     * @return the hash of the protocol, ID and SWITCH fields of the frame, {@link #NO_DEVICE} if it has no ID
+     */
+    private static long hashDeviceKey(String frame, int payloadStart) {
+        int fieldEnd = frame.indexOf(FIELDS_DELIMITER, payloadStart);
+        if (fieldEnd < 0) {
+            return NO_DEVICE;
+        }
+        long hash = hash(FNV_OFFSET_BASIS, frame, payloadStart, fieldEnd);
+        boolean hasId = false;
+        while (fieldEnd + 1 < frame.length()) {
+            int fieldStart = fieldEnd + 1;
+            fieldEnd = frame.indexOf(FIELDS_DELIMITER, fieldStart);
+            if (fieldEnd < 0) {
+                fieldEnd = frame.length();
+            }
+            boolean id = frame.startsWith(ID_FIELD, fieldStart);
+            if (id || frame.startsWith(SWITCH_FIELD, fieldStart)) {
+                hasId |= id;
+                hash = hash(hash, frame, fieldStart, fieldEnd);
+            }
+        }
+        return !hasId ? NO_DEVICE : hash == NO_DEVICE ? 1 : hash;
+    }
+
+    private static long hash(long seed, String frame, int start, int end) {
+        long hash = seed;
+        for (int i = start; i < end; i++) {
+            hash ^= frame.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private void countSuppressedFrame(String frame, int payloadStart) {
+        int protocolEnd = frame.indexOf(FIELDS_DELIMITER, payloadStart);
+        String protocol = frame.substring(payloadStart, protocolEnd < 0 ? frame.length() : protocolEnd);
+        suppressedFramesByProtocol.computeIfAbsent(protocol, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return the number of suppressed duplicate frames, per protocol
+     */
+    public Map<String, Long> getSuppressedFrameCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : suppressedFramesByProtocol.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkBridgeDuplicateFilter [window=" + TimeUnit.NANOSECONDS.toMillis(windowNanos) + "ms, suppressed="
+                + getSuppressedFrameCounts() + "]";
+    }
+}
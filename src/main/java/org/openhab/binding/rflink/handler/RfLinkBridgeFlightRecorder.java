@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.openhab.binding.rflink.packet.RfLinkPacketType;
+
+/**
+ * Flight recorder of a Bridge : keeps the last raw frames received and sent, to be dumped to a file when something
+ * odd happens.
+ * <p/>
+ * The frames are recorded in a fixed size ring, stored off heap : each record holds the monotonic
+ * (System.nanoTime) and wall clock timestamps, the direction and the first {@link #MAX_FRAME_LENGTH} characters of
+ * the frame. Recording a frame overwrites the oldest record, and does not allocate : it is cheap enough to be always
+ * on, unlike the debug logs.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkBridgeFlightRecorder {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+    public static final int MAX_CAPACITY = 65536;
+
+    // record layout : nanos (8) | millis (8) | direction (1) | truncated (1) | length (2) | frame
+    private static final int RECORD_SIZE = 128;
+    private static final int NANOS_OFFSET = 0;
+    private static final int MILLIS_OFFSET = 8;
+    private static final int DIRECTION_OFFSET = 16;
+    private static final int TRUNCATED_OFFSET = 17;
+    private static final int LENGTH_OFFSET = 18;
+    private static final int FRAME_OFFSET = 20;
+    public static final int MAX_FRAME_LENGTH = RECORD_SIZE - FRAME_OFFSET;
+
+    private static final String[] DIRECTIONS = { "RX", "TX", "ECHO" };
+
+    private final int capacity;
+    private final ByteBuffer ring;
+    // total number of frames recorded (the next record is at written % capacity)
+    private long written = 0;
+
+    public RfLinkBridgeFlightRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of frames kept
+     */
+    public RfLinkBridgeFlightRecorder(int capacity) {
+        this.capacity = Math.min(Math.max(capacity, 1), MAX_CAPACITY);
+        this.ring = ByteBuffer.allocateDirect(this.capacity * RECORD_SIZE);
+    }
+
+    /**
+     * Record a packet received from (INPUT, ECHO) the transceiver, stamped at its reception
+     *
+     * @param packet the packet
+     */
+    public void record(RfLinkPacket packet) {
+        record(packet.getType(), packet.getReceivedNanos(), packet.getReceivedMillis(), packet.getPacket());
+    }
+
+    /**
+     * Record a frame
+     *
+     * @param type   the direction of the frame
+     * @param nanos  the (System.nanoTime) time of the frame
+     * @param millis the (wall clock) time of the frame
+     * @param frame  the raw frame
+     */
+    public synchronized void record(RfLinkPacketType type, long nanos, long millis, CharSequence frame) {
+        int record = (int) (written % capacity) * RECORD_SIZE;
+        int frameLength = frame == null ? 0 : frame.length();
+        int length = Math.min(frameLength, MAX_FRAME_LENGTH);
+        ring.putLong(record + NANOS_OFFSET, nanos);
+        ring.putLong(record + MILLIS_OFFSET, millis);
+        ring.put(record + DIRECTION_OFFSET, (byte) (type == null ? 0 : type.ordinal()));
+        ring.put(record + TRUNCATED_OFFSET, (byte) (frameLength > length ? 1 : 0));
+        ring.putShort(record + LENGTH_OFFSET, (short) length);
+        for (int i = 0; i < length; i++) {
+            char c = frame.charAt(i);
+            // frames are ASCII
+            ring.put(record + FRAME_OFFSET + i, (byte) (c < 0x80 ? c : '?'));
+        }
+        written++;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return the total number of frames recorded
+     */
+    public synchronized long getRecordedCount() {
+        return written;
+    }
+
+    /**
+     * Write the recorded frames, from the oldest to the newest, to a text file
+     *
+     * @param file   the file to write (overwritten)
+     * @param reason the reason of the dump, written in the header
+     * @throws IOException if the file cannot be written
+     */
+    public void dump(File file, String reason) throws IOException {
+        // copy the ring (the only allocation), and format it out of the lock
+        byte[] snapshot = new byte[capacity * RECORD_SIZE];
+        long snapshotWritten;
+        synchronized (this) {
+            ByteBuffer view = ring.duplicate();
+            view.clear();
+            view.get(snapshot);
+            snapshotWritten = written;
+        }
+        ByteBuffer records = ByteBuffer.wrap(snapshot);
+        long first = Math.max(0, snapshotWritten - capacity);
+        File folder = file.getParentFile();
+        if (folder != null && !folder.exists()) {
+            folder.mkdirs();
+        }
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8))) {
+            writer.println("# RFLink flight recorder : " + reason);
+            writer.println("# " + (snapshotWritten - first) + " frames (" + snapshotWritten + " recorded)");
+            writer.println("# wall clock | nanoTime | direction | frame");
+            for (long i = first; i < snapshotWritten; i++) {
+                int record = (int) (i % capacity) * RECORD_SIZE;
+                int direction = records.get(record + DIRECTION_OFFSET);
+                int length = records.getShort(record + LENGTH_OFFSET);
+                writer.print(dateFormat.format(new Date(records.getLong(record + MILLIS_OFFSET))));
+                writer.print(' ');
+                writer.print(records.getLong(record + NANOS_OFFSET));
+                writer.print(' ');
+                writer.print(direction >= 0 && direction < DIRECTIONS.length ? DIRECTIONS[direction] : "?");
+                writer.print(' ');
+                writer.print(new String(snapshot, record + FRAME_OFFSET, length, StandardCharsets.US_ASCII));
+                writer.println(records.get(record + TRUNCATED_OFFSET) != 0 ? "..." : "");
+            }
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RfLinkBridgeFlightRecorder [capacity=" + capacity + ", recorded=" + written + "]";
+    }
+}
@@ -8,15 +8,24 @@
  */
 package org.openhab.binding.rflink.handler;
 
+import java.io.File;
 import java.io.IOException;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.StringType;
 import org.eclipse.smarthome.core.thing.Bridge;
 import org.eclipse.smarthome.core.thing.ChannelUID;
@@ -25,11 +34,17 @@ import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.eclipse.smarthome.core.thing.binding.BaseBridgeHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.config.RfLinkBridgeConfiguration;
+import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
 import org.openhab.binding.rflink.connector.RfLinkConnectorInterface;
 import org.openhab.binding.rflink.connector.RfLinkSerialConnector;
+import org.openhab.binding.rflink.event.RfLinkColorStateStore;
 import org.openhab.binding.rflink.exceptions.RfLinkException;
 import org.openhab.binding.rflink.internal.EventMessageListener;
+import org.openhab.binding.rflink.internal.RfLinkLatencyHistogram;
+import org.openhab.binding.rflink.internal.discovery.RfLinkDiscoveryRules;
 import org.openhab.binding.rflink.internal.discovery.RfLinkThingDiscoveryService;
 import org.openhab.binding.rflink.packet.RfLinkPacket;
 import org.openhab.binding.rflink.packet.RfLinkPacketType;
@@ -45,21 +60,69 @@ import org.slf4j.LoggerFactory;
  * @author John Jore - Added initial support to transmit messages to devices
  * @author Marvyn Zalewski - Added getConfiguration Method
  * @author cartemere - refactor to provide Handler config to the Device + rework Discovery
+ * @author cartemere - reload discovery rules without reconnecting
+ * @author cartemere - suppress duplicate frames
+ * @author cartemere - micro-batch the Things State updates
+ * @author cartemere - bridge scoped color state store
+ * @author cartemere - lookup of the Thing bound to a device (RTS groups)
+ * @author cartemere - memory mapped state snapshot
+ * @author cartemere - activity counters published on bridge channels
+ * @author cartemere - per stage latency histograms, published on bridge channels and JMX
+ * @author cartemere - census of the RF devices heard
+ * @author cartemere - flight recorder of the raw frames
+ * @author cartemere - loss rate of the received lines
+ * @author cartemere - persistence settings applied without reconnecting
+ * @author cartemere - latency percentiles published per interval
+ * @author cartemere - bounded census size
+ * @author cartemere - rotated flight recorder dumps on error
+ * @author cartemere - per protocol counts published
+ * @author cartemere - discovery queue depth published
+ * @author cartemere - state batching ratio published
+ * @author cartemere - listeners indexed by device id
  */
 public class RfLinkBridgeHandler extends BaseBridgeHandler {
 
+    // number of devices reported in the census, when not specified by the command
+    private static final int DEFAULT_CENSUS_LIMIT = 50;
+    // minimum period between two dumps of the flight recorder on error
+    private static final long FLIGHT_RECORDER_ERROR_DUMP_PERIOD = TimeUnit.MINUTES.toMillis(1);
+    // number of dumps on error kept : the oldest is overwritten
+    private static final int FLIGHT_RECORDER_ERROR_DUMPS = 3;
+
     private Logger logger = LoggerFactory.getLogger(RfLinkBridgeHandler.class);
 
     private RfLinkConnectorInterface connector = null;
 
     private RfLinkThingDiscoveryService discoveryService = null;
     private List<EventMessageListener> eventMessageListeners = new CopyOnWriteArrayList<>();
+    // listeners by lower case device id, for the lookups done on every frame
+    private final Map<String, List<EventMessageListener>> deviceListeners = new ConcurrentHashMap<>();
+    // listeners not bound to a device id : asked for every message
+    private final List<EventMessageListener> unboundListeners = new CopyOnWriteArrayList<>();
 
     private RfLinkBridgeConfiguration configuration = null;
+    private volatile RfLinkDiscoveryRules discoveryRules = RfLinkDiscoveryRules.EMPTY;
     private ScheduledFuture<?> connectorTask = null;
     private ScheduledFuture<?> keepAliveTask = null;
     private RfLinkBridgeTxQueue transmitQueue = new RfLinkBridgeTxQueue(this);
     private RfLinkBridgeRxListener eventListener = new RfLinkBridgeRxListener(this);
+    private RfLinkBridgeUnknownDeviceCache unknownDeviceCache = new RfLinkBridgeUnknownDeviceCache();
+    private RfLinkBridgeDiscoveryQueue discoveryQueue = new RfLinkBridgeDiscoveryQueue(this);
+    private RfLinkBridgeDuplicateFilter duplicateFilter = new RfLinkBridgeDuplicateFilter();
+    private RfLinkBridgeStatePublisher statePublisher = new RfLinkBridgeStatePublisher(scheduler);
+    private RfLinkColorStateStore colorStateStore = new RfLinkColorStateStore();
+    private RfLinkBridgeStateSnapshot stateSnapshot = new RfLinkBridgeStateSnapshot();
+    private RfLinkBridgeMetrics metrics = new RfLinkBridgeMetrics();
+    private RfLinkBridgeLatency latency = new RfLinkBridgeLatency();
+    private RfLinkBridgeSequenceTracker sequenceTracker = new RfLinkBridgeSequenceTracker(metrics);
+    private volatile RfLinkBridgeCensus census = null;
+    private volatile RfLinkBridgeFlightRecorder flightRecorder = null;
+    private long lastErrorDumpMillis = 0;
+    private ScheduledFuture<?> metricsTask = null;
+    private boolean connectedOnce = false;
+    // line counts at the previous metrics publication, for the loss rate of the interval
+    private long previousTrackedLines = 0;
+    private long previousLinesLost = 0;
 
     public RfLinkBridgeHandler(Bridge br) {
         super(br);
@@ -67,7 +130,13 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
 
     @Override
     public void handleCommand(ChannelUID channelUID, Command command) {
-        if (command instanceof RefreshType) {
+        if (RfLinkBindingConstants.CHANNEL_CENSUS.equals(channelUID.getId())) {
+            publishCensus(command);
+        } else if (RfLinkBindingConstants.CHANNEL_FLIGHT_RECORDER.equals(channelUID.getId())) {
+            if (!(command instanceof RefreshType)) {
+                dumpFlightRecorder("requested on channel " + channelUID.getId(), true);
+            }
+        } else if (command instanceof RefreshType) {
             // do nothing
         } else if (command instanceof StringType) {
             try {
@@ -91,7 +160,10 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
 
     @Override
     public void dispose() {
-        logger.debug("Handler disposed.");
+        logger.debug("Handler disposed. {}, {}, {}, {}, {}", unknownDeviceCache, discoveryQueue, duplicateFilter,
+                statePublisher, stateSnapshot);
+
+        stateSnapshot.close();
 
         if (connector != null) {
             connector.removeEventListener(eventListener);
@@ -108,6 +180,11 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
             keepAliveTask = null;
         }
 
+        discoveryQueue.stop();
+        cancelMetricsTask();
+        latency.unregister();
+        logger.debug("Bridge activity : {}, {}", metrics, latency);
+
         super.dispose();
     }
 
@@ -117,6 +194,15 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
         updateStatus(ThingStatus.OFFLINE);
 
         configuration = getConfigAs(RfLinkBridgeConfiguration.class);
+        applyDiscoveryConfiguration();
+        duplicateFilter.setWindow(configuration.duplicateWindow);
+        statePublisher.setWindow(configuration.publishBatchWindow);
+        applyPersistenceConfiguration();
+        scheduleMetricsTask();
+        applyCensusConfiguration();
+        applyFlightRecorderConfiguration();
+        latency.register(getThing().getUID().getId());
+        discoveryQueue.start();
 
         if (connectorTask == null || connectorTask.isCancelled()) {
             connectorTask = scheduler.scheduleWithFixedDelay(new Runnable() {
@@ -146,6 +232,247 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
 
     }
 
+    @Override
+    public void handleConfigurationUpdate(Map<String, Object> configurationParameters) {
+        validateConfigurationParameters(configurationParameters);
+        Configuration newConfiguration = editConfiguration();
+        for (Map.Entry<String, Object> configurationParameter : configurationParameters.entrySet()) {
+            newConfiguration.put(configurationParameter.getKey(), configurationParameter.getValue());
+        }
+        RfLinkBridgeConfiguration newBridgeConfiguration = newConfiguration.as(RfLinkBridgeConfiguration.class);
+        if (configuration != null && configuration.isSameConnectionAs(newBridgeConfiguration)) {
+            // only the discovery and filtering settings changed : apply them without reconnecting the port
+            logger.debug("Reloading RFLink bridge configuration");
+            updateConfiguration(newConfiguration);
+            configuration = newBridgeConfiguration;
+            applyDiscoveryConfiguration();
+            duplicateFilter.setWindow(configuration.duplicateWindow);
+            statePublisher.setWindow(configuration.publishBatchWindow);
+            scheduleMetricsTask();
+            applyCensusConfiguration();
+            applyFlightRecorderConfiguration();
+            applyPersistenceConfiguration();
+        } else {
+            super.handleConfigurationUpdate(configurationParameters);
+        }
+    }
+
+    private void applyPersistenceConfiguration() {
+        if (!configuration.persistState) {
+            stateSnapshot.close();
+        } else if (!stateSnapshot.isOpen()) {
+            stateSnapshot.open(getStateSnapshotFile());
+        }
+    }
+
+    private void applyDiscoveryConfiguration() {
+        try {
+            discoveryRules = RfLinkDiscoveryRules.compile(configuration.discoveryIgnore, configuration.discoveryAllow);
+            logger.debug("Discovery rules loaded : {}", discoveryRules);
+        } catch (IllegalArgumentException e) {
+            logger.error("Invalid discovery rules, ignoring them : {}", e.getMessage());
+            discoveryRules = RfLinkDiscoveryRules.EMPTY;
+        }
+        // the rules may have changed : forget the devices known as not discoverable
+        unknownDeviceCache.clear();
+    }
+
+    private void applyCensusConfiguration() {
+        RfLinkBridgeCensus currentCensus = census;
+        int capacity = Math.min(configuration.censusSize, RfLinkBridgeCensus.MAX_CAPACITY);
+        if (capacity <= 0) {
+            census = null;
+        } else if (currentCensus == null || currentCensus.getCapacity() != capacity) {
+            census = new RfLinkBridgeCensus(capacity);
+        }
+    }
+
+    private void publishCensus(Command command) {
+        RfLinkBridgeCensus currentCensus = census;
+        if (currentCensus == null) {
+            logger.debug("RF devices census is disabled on bridge {}", getThing().getUID());
+            return;
+        }
+        int limit = DEFAULT_CENSUS_LIMIT;
+        if (command instanceof StringType) {
+            try {
+                limit = Integer.parseInt(command.toString().trim());
+            } catch (NumberFormatException e) {
+                logger.debug("Invalid census size {}, using {}", command, limit);
+            }
+        }
+        updateState(RfLinkBindingConstants.CHANNEL_CENSUS,
+                new StringType(currentCensus.toJson(limit, deviceKey -> findThingHandler(deviceKey) != null)));
+    }
+
+    private void applyFlightRecorderConfiguration() {
+        RfLinkBridgeFlightRecorder currentFlightRecorder = flightRecorder;
+        int capacity = Math.min(configuration.flightRecorderSize, RfLinkBridgeFlightRecorder.MAX_CAPACITY);
+        if (capacity <= 0) {
+            flightRecorder = null;
+        } else if (currentFlightRecorder == null || currentFlightRecorder.getCapacity() != capacity) {
+            flightRecorder = new RfLinkBridgeFlightRecorder(capacity);
+        }
+    }
+
+    /**
+     * Dump the flight recorder to a file (asynchronously), and publish the path of the file
+     *
+     * @param reason   the reason of the dump
+     * @param onDemand false if the dump is triggered by an error : such dumps are throttled, and rotated over
+     *                     {@value #FLIGHT_RECORDER_ERROR_DUMPS} files
+     */
+    public void dumpFlightRecorder(String reason, boolean onDemand) {
+        RfLinkBridgeFlightRecorder currentFlightRecorder = flightRecorder;
+        if (currentFlightRecorder == null) {
+            logger.debug("Flight recorder is disabled on bridge {}", getThing().getUID());
+            return;
+        }
+        if (!onDemand) {
+            synchronized (currentFlightRecorder) {
+                long now = System.currentTimeMillis();
+                if (now - lastErrorDumpMillis < FLIGHT_RECORDER_ERROR_DUMP_PERIOD) {
+                    return;
+                }
+                lastErrorDumpMillis = now;
+            }
+        }
+        scheduler.execute(() -> {
+            File dumpFile = onDemand ? getFlightRecorderFile() : rotateFlightRecorderErrorFiles();
+            try {
+                currentFlightRecorder.dump(dumpFile, reason);
+                logger.info("Flight recorder of bridge {} dumped to {} ({})", getThing().getUID(), dumpFile, reason);
+                updateState(RfLinkBindingConstants.CHANNEL_FLIGHT_RECORDER, new StringType(dumpFile.getPath()));
+            } catch (IOException e) {
+                logger.warn("Unable to dump the flight recorder to {} : {}", dumpFile, e.getMessage());
+            }
+        });
+    }
+
+    private synchronized void scheduleMetricsTask() {
+        cancelMetricsTask();
+        if (configuration.metricsInterval > 0) {
+            metricsTask = scheduler.scheduleWithFixedDelay(this::publishMetrics, configuration.metricsInterval,
+                    configuration.metricsInterval, TimeUnit.SECONDS);
+        }
+    }
+
+    private synchronized void cancelMetricsTask() {
+        if (metricsTask != null) {
+            metricsTask.cancel(false);
+            metricsTask = null;
+        }
+    }
+
+    private void publishMetrics() {
+        for (Map.Entry<RfLinkBridgeMetrics.Counter, Long> counter : metrics.getCounters().entrySet()) {
+            String channelId = counter.getKey().getChannelId();
+            if (isLinked(channelId)) {
+                updateState(channelId, new DecimalType(counter.getValue()));
+            }
+        }
+        // percentiles of the interval : the lifetime values are kept in JMX
+        RfLinkLatencyHistogram[] intervalHistograms = latency.swapIntervalHistograms();
+        for (RfLinkBridgeLatency.Stage stage : RfLinkBridgeLatency.Stage.values()) {
+            RfLinkLatencyHistogram histogram = intervalHistograms[stage.ordinal()];
+            publishLatency(stage, RfLinkBridgeLatency.CHANNEL_P50, histogram, 50);
+            publishLatency(stage, RfLinkBridgeLatency.CHANNEL_P99, histogram, 99);
+            publishLatency(stage, RfLinkBridgeLatency.CHANNEL_P999, histogram, 99.9);
+        }
+        publishLossRate();
+        publishProtocolCounts(RfLinkBindingConstants.CHANNEL_FRAMES_BY_PROTOCOL, metrics.getParsedFrameCounts());
+        publishProtocolCounts(RfLinkBindingConstants.CHANNEL_DROPPED_BY_PROTOCOL,
+                unknownDeviceCache.getDroppedFrameCounts());
+        publishProtocolCounts(RfLinkBindingConstants.CHANNEL_DUPLICATES_BY_PROTOCOL,
+                duplicateFilter.getSuppressedFrameCounts());
+        publishNumber(RfLinkBindingConstants.CHANNEL_DISCOVERY_QUEUE_DEPTH, discoveryQueue.getDepth());
+        publishNumber(RfLinkBindingConstants.CHANNEL_DISCOVERY_QUEUE_MAX_DEPTH, discoveryQueue.getMaxDepth());
+        publishNumber(RfLinkBindingConstants.CHANNEL_DISCOVERY_DROPPED, discoveryQueue.getDroppedCount());
+        if (isLinked(RfLinkBindingConstants.CHANNEL_PUBLISH_BATCHING_RATIO)) {
+            updateState(RfLinkBindingConstants.CHANNEL_PUBLISH_BATCHING_RATIO,
+                    new DecimalType(statePublisher.getBatchingRatio()));
+        }
+        logger.trace("Bridge activity : {}, {}", metrics, latency);
+    }
+
+    private void publishNumber(String channelId, long value) {
+        if (isLinked(channelId)) {
+            updateState(channelId, new DecimalType(value));
+        }
+    }
+
+    private void publishProtocolCounts(String channelId, Map<String, Long> counts) {
+        if (isLinked(channelId)) {
+            updateState(channelId, new StringType(RfLinkBridgeMetrics.toJson(counts)));
+        }
+    }
+
+    private void publishLossRate() {
+        long trackedLines = sequenceTracker.getTrackedLines();
+        long linesLost = metrics.get(RfLinkBridgeMetrics.Counter.LINES_LOST);
+        long intervalLines = trackedLines - previousTrackedLines;
+        long intervalLost = linesLost - previousLinesLost;
+        previousTrackedLines = trackedLines;
+        previousLinesLost = linesLost;
+        double lossRate = intervalLines + intervalLost > 0 ? 100.0 * intervalLost / (intervalLines + intervalLost) : 0;
+        if (isLinked(RfLinkBindingConstants.CHANNEL_LOSS_RATE)) {
+            updateState(RfLinkBindingConstants.CHANNEL_LOSS_RATE, new DecimalType(lossRate));
+        }
+        if (configuration.lossWarningThreshold > 0 && lossRate > configuration.lossWarningThreshold) {
+            logger.warn("Bridge {} lost {} of {} lines ({}%) in the last {}s : the serial reader does not keep up",
+                    getThing().getUID(), intervalLost, intervalLines + intervalLost,
+                    String.format("%.2f", lossRate), configuration.metricsInterval);
+        }
+    }
+
+    private void publishLatency(RfLinkBridgeLatency.Stage stage, String channelId, RfLinkLatencyHistogram histogram,
+            double percentile) {
+        String groupChannelId = stage.getChannelGroupId() + ChannelUID.CHANNEL_GROUP_SEPARATOR + channelId;
+        if (!isLinked(groupChannelId)) {
+            return;
+        }
+        if (histogram.getCount() == 0) {
+            // nothing measured on the interval
+            updateState(groupChannelId, UnDefType.UNDEF);
+        } else {
+            long micros = TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(percentile));
+            updateState(groupChannelId, new DecimalType(micros));
+        }
+    }
+
+    private File getFlightRecorderFile() {
+        String timestamp = new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        return new File(ConfigConstants.getUserDataFolder() + File.separator + RfLinkBindingConstants.BINDING_ID
+                + File.separator + getThing().getUID().getId() + "-flight-" + timestamp + ".log");
+    }
+
+    private File getFlightRecorderErrorFile(int generation) {
+        return new File(ConfigConstants.getUserDataFolder() + File.separator + RfLinkBindingConstants.BINDING_ID
+                + File.separator + getThing().getUID().getId() + "-flight-error"
+                + (generation == 0 ? "" : "." + generation) + ".log");
+    }
+
+    /**
+     * Shift the dumps on error (the oldest one is dropped)
+     *
+     * @return the file of the next dump on error
+     */
+    private File rotateFlightRecorderErrorFiles() {
+        for (int generation = FLIGHT_RECORDER_ERROR_DUMPS - 1; generation > 0; generation--) {
+            File previous = getFlightRecorderErrorFile(generation - 1);
+            File rotated = getFlightRecorderErrorFile(generation);
+            if (previous.exists() && (!rotated.exists() || rotated.delete()) && !previous.renameTo(rotated)) {
+                logger.debug("Unable to rotate the flight recorder dump {}", previous);
+            }
+        }
+        return getFlightRecorderErrorFile(0);
+    }
+
+    private File getStateSnapshotFile() {
+        return new File(ConfigConstants.getUserDataFolder() + File.separator + RfLinkBindingConstants.BINDING_ID
+                + File.separator + getThing().getUID().getId() + "-state.bin");
+    }
+
     private void connect() {
         logger.debug("Connecting to RFLink transceiver on {} port", configuration.serialPort);
 
@@ -157,9 +484,15 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
 
             if (connector != null) {
                 connector.disconnect();
+                // the lines sent while disconnected are not lost by the reader
+                sequenceTracker.reset();
                 connector.connect(configuration.serialPort, configuration.baudRate);
                 connector.addEventListener(eventListener);
                 logger.debug("RFLink receiver started");
+                if (connectedOnce) {
+                    metrics.increment(RfLinkBridgeMetrics.Counter.RECONNECTS);
+                }
+                connectedOnce = true;
                 updateStatus(ThingStatus.ONLINE);
             } else {
                 logger.debug("connector is null");
@@ -198,21 +531,99 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
         }
     }
 
-    public boolean registerEventMessageListener(EventMessageListener eventMessageListener) {
+    public synchronized boolean registerEventMessageListener(EventMessageListener eventMessageListener) {
         if (eventMessageListener == null) {
             throw new IllegalArgumentException("It's not allowed to pass a null eventMessageListener.");
         }
-        return eventMessageListeners.contains(eventMessageListener) ? false
-                : eventMessageListeners.add(eventMessageListener);
+        if (eventMessageListeners.contains(eventMessageListener)) {
+            return false;
+        }
+        eventMessageListeners.add(eventMessageListener);
+        String deviceListenerKey = getDeviceListenerKey(eventMessageListener);
+        if (deviceListenerKey == null) {
+            unboundListeners.add(eventMessageListener);
+        } else {
+            deviceListeners.computeIfAbsent(deviceListenerKey, key -> new CopyOnWriteArrayList<>())
+                    .add(eventMessageListener);
+        }
+        return true;
     }
 
-    public boolean removeEventMessageListener(EventMessageListener eventMessageListener) {
+    public synchronized boolean removeEventMessageListener(EventMessageListener eventMessageListener) {
         if (eventMessageListener == null) {
             throw new IllegalArgumentException("It's not allowed to pass a null eventMessageListener.");
         }
+        // whatever its current device id : the configuration may have changed since its registration
+        unboundListeners.remove(eventMessageListener);
+        deviceListeners.values().forEach(listeners -> listeners.remove(eventMessageListener));
+        deviceListeners.values().removeIf(List::isEmpty);
         return eventMessageListeners.remove(eventMessageListener);
     }
 
+    private static String getDeviceListenerKey(EventMessageListener eventMessageListener) {
+        if (eventMessageListener instanceof RfLinkThingHandler) {
+            RfLinkDeviceConfiguration thingConfig = ((RfLinkThingHandler) eventMessageListener).getConfiguration();
+            if (thingConfig != null && thingConfig.deviceId != null) {
+                return thingConfig.deviceId.toLowerCase(Locale.ROOT);
+            }
+        }
+        return null;
+    }
+
+    public RfLinkBridgeUnknownDeviceCache getUnknownDeviceCache() {
+        return unknownDeviceCache;
+    }
+
+    public RfLinkBridgeTxQueue getTransmitQueue() {
+        return transmitQueue;
+    }
+
+    public RfLinkBridgeDiscoveryQueue getDiscoveryQueue() {
+        return discoveryQueue;
+    }
+
+    public RfLinkBridgeDuplicateFilter getDuplicateFilter() {
+        return duplicateFilter;
+    }
+
+    public RfLinkBridgeStatePublisher getStatePublisher() {
+        return statePublisher;
+    }
+
+    public RfLinkColorStateStore getColorStateStore() {
+        return colorStateStore;
+    }
+
+    public RfLinkBridgeStateSnapshot getStateSnapshot() {
+        return stateSnapshot;
+    }
+
+    public RfLinkBridgeMetrics getMetrics() {
+        return metrics;
+    }
+
+    public RfLinkBridgeSequenceTracker getSequenceTracker() {
+        return sequenceTracker;
+    }
+
+    public RfLinkBridgeLatency getLatency() {
+        return latency;
+    }
+
+    /**
+     * @return the census of the RF devices heard, null if disabled
+     */
+    public RfLinkBridgeCensus getCensus() {
+        return census;
+    }
+
+    /**
+     * @return the flight recorder of the raw frames, null if disabled
+     */
+    public RfLinkBridgeFlightRecorder getFlightRecorder() {
+        return flightRecorder;
+    }
+
     public RfLinkBridgeConfiguration getConfiguration() {
         return configuration;
     }
@@ -233,6 +644,40 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
         return eventMessageListeners;
     }
 
+    /**
+     * @param deviceKey the key of the device of a message (case insensitive), may be null
+     * @return the listeners which may handle the messages of the device : those bound to the device, and those not
+     *         bound to any device
+     */
+    public List<EventMessageListener> getEventMessageListeners(String deviceKey) {
+        List<EventMessageListener> listeners = deviceKey == null ? null
+                : deviceListeners.get(deviceKey.toLowerCase(Locale.ROOT));
+        if (unboundListeners.isEmpty()) {
+            return listeners == null ? Collections.emptyList() : listeners;
+        }
+        List<EventMessageListener> allListeners = new ArrayList<>(unboundListeners);
+        if (listeners != null) {
+            allListeners.addAll(listeners);
+        }
+        return allListeners;
+    }
+
+    /**
+     * @param deviceId the identifier of a device (case insensitive)
+     * @return the handler of the Thing bound to the device, null if none
+     */
+    public RfLinkThingHandler findThingHandler(String deviceId) {
+        List<EventMessageListener> listeners = deviceListeners.get(deviceId.toLowerCase(Locale.ROOT));
+        if (listeners != null) {
+            for (EventMessageListener listener : listeners) {
+                if (listener instanceof RfLinkThingHandler) {
+                    return (RfLinkThingHandler) listener;
+                }
+            }
+        }
+        return null;
+    }
+
     @Override
     public void updateStatus(ThingStatus status, ThingStatusDetail statusDetail) {
         // needs to be visible for Rx & Tx to update the status
@@ -243,4 +688,12 @@ public class RfLinkBridgeHandler extends BaseBridgeHandler {
         return !getConfiguration().disableDiscovery;
     }
 
+    /**
+     * @param deviceKey the key of a device not handled by any Thing
+     * @return true if the device is eligible for discovery (discovery enabled, and not ignored by the rules)
+     */
+    public boolean isDiscoveryEnabled(String deviceKey) {
+        return isDiscoveryEnabled() && discoveryRules.isDiscoverable(deviceKey);
+    }
+
 }
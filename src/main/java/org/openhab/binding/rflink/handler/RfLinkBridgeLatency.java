@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.openhab.binding.rflink.internal.RfLinkLatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency histograms of the RX and TX pipelines of a Bridge, one per stage.
+ * <p/>
+ * Each duration is recorded twice : in the lifetime histograms, exposed as a JMX MXBean
+ * (<code>org.openhab.binding.rflink:type=Latency,bridge=&lt;bridgeId&gt;</code>), and in the interval histograms,
+ * swapped for empty ones on each publication of the percentiles on the bridge channel groups (one group per stage).
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - per interval histograms
+ */
+public class RfLinkBridgeLatency implements RfLinkBridgeLatencyMXBean {
+
+    /**
+     * The measured stages, and the id of the bridge channel group they are published on
+     */
+    public enum Stage {
+        // RX : from the first byte of a frame to the end of line
+        FRAMING("framingLatency"),
+        // RX : frame to RfLinkMessage
+        PARSE("parseLatency"),
+        // RX : RfLinkMessage to RfLinkEvent (RfLinkEventFactory)
+        CLASSIFY("classifyLatency"),
+        // RX : lookup of the Things handling a message
+        DISPATCH("dispatchLatency"),
+        // RX : Thing handler, up to the channel State updates
+        HANDLER("handlerLatency"),
+        // TX : from the packet creation (command received) to its transmission start
+        TX_QUEUE("txQueueLatency"),
+        // TX : transmission of a batch of packets on the serial port
+        TX_WIRE("txWireLatency");
+
+        private final String channelGroupId;
+
+        private Stage(String channelGroupId) {
+            this.channelGroupId = channelGroupId;
+        }
+
+        public String getChannelGroupId() {
+            return channelGroupId;
+        }
+    }
+
+    public static final String CHANNEL_P50 = "p50";
+    public static final String CHANNEL_P99 = "p99";
+    public static final String CHANNEL_P999 = "p999";
+
+    private static final String OBJECT_NAME = "org.openhab.binding.rflink:type=Latency,bridge=";
+
+    private Logger logger = LoggerFactory.getLogger(RfLinkBridgeLatency.class);
+
+    // since the start (or the last JMX reset)
+    private final RfLinkLatencyHistogram[] histograms = newHistograms();
+    // since the last swap
+    private volatile RfLinkLatencyHistogram[] intervalHistograms = newHistograms();
+    private ObjectName objectName = null;
+
+    private static RfLinkLatencyHistogram[] newHistograms() {
+        RfLinkLatencyHistogram[] stageHistograms = new RfLinkLatencyHistogram[Stage.values().length];
+        for (int i = 0; i < stageHistograms.length; i++) {
+            stageHistograms[i] = new RfLinkLatencyHistogram();
+        }
+        return stageHistograms;
+    }
+
+    /**
+     * @param stage         the measured stage
+     * @param durationNanos the duration of the stage
+     */
+    public void record(Stage stage, long durationNanos) {
+        histograms[stage.ordinal()].record(durationNanos);
+        intervalHistograms[stage.ordinal()].record(durationNanos);
+    }
+
+    /**
+     * @param stage the measured stage
+     * @return the lifetime histogram of the stage
+     */
+    public RfLinkLatencyHistogram getHistogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /**
+     * Start a new interval (a duration being recorded during the swap may be counted in the new interval)
+     *
+     * @return the histograms of the interval which ends, by {@link Stage} ordinal
+     */
+    public synchronized RfLinkLatencyHistogram[] swapIntervalHistograms() {
+        RfLinkLatencyHistogram[] ended = intervalHistograms;
+        intervalHistograms = newHistograms();
+        return ended;
+    }
+
+    /**
+     * Register the MXBean on the platform MBean server
+     *
+     * @param bridgeId the bridge identifier
+     */
+    public synchronized void register(String bridgeId) {
+        unregister();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME + ObjectName.quote(bridgeId));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+            objectName = name;
+        } catch (JMException e) {
+            logger.warn("Unable to register the latency MBean of bridge {} : {}", bridgeId, e.getMessage());
+        }
+    }
+
+    public synchronized void unregister() {
+        if (objectName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                logger.debug("Unable to unregister the latency MBean {} : {}", objectName, e.getMessage());
+            }
+            objectName = null;
+        }
+    }
+
+    private Map<String, Long> collect(ToLongFunction<RfLinkLatencyHistogram> value) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Stage stage : Stage.values()) {
+            values.put(stage.name(), value.applyAsLong(getHistogram(stage)));
+        }
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        return collect(RfLinkLatencyHistogram::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getP50Micros() {
+        return collect(histogram -> TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(50)));
+    }
+
+    @Override
+    public Map<String, Long> getP99Micros() {
+        return collect(histogram -> TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99)));
+    }
+
+    @Override
+    public Map<String, Long> getP999Micros() {
+        return collect(histogram -> TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99.9)));
+    }
+
+    @Override
+    public Map<String, Long> getMaxMicros() {
+        return collect(histogram -> TimeUnit.NANOSECONDS.toMicros(histogram.getMax()));
+    }
+
+    @Override
+    public void reset() {
+        for (RfLinkLatencyHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkBridgeLatency (us) p50=" + getP50Micros() + " p99=" + getP99Micros();
+    }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.Map;
+
+/**
+ * JMX view of the latency histograms of a Bridge : values in microseconds, by stage, since the start (or the last
+ * reset).
+ *
+ * @author cartemere - Initial contribution
+ */
+public interface RfLinkBridgeLatencyMXBean {
+
+    Map<String, Long> getCounts();
+
+    Map<String, Long> getP50Micros();
+
+    Map<String, Long> getP99Micros();
+
+    Map<String, Long> getP999Micros();
+
+    Map<String, Long> getMaxMicros();
+
+    /**
+     * Clear all the histograms
+     */
+    void reset();
+}
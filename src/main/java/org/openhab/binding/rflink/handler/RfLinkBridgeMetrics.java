@@ -0,0 +1,162 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Activity counters of a Bridge (RX / TX pipelines).
+ * <p/>
+ * Counters are striped ({@link LongAdder}) : counting from the RX, TX and discovery threads does not contend. Reading
+ * a counter sums the stripes, and is only done when the counters are published.
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - per protocol counts as JSON
+ */
+public class RfLinkBridgeMetrics {
+
+    /**
+     * The counters, and the id of the bridge channel they are published on
+     */
+    public enum Counter {
+        // frames read from the serial port
+        FRAMES_RECEIVED("framesReceived"),
+        // frames dropped as repeated copies
+        FRAMES_DUPLICATED("framesDuplicated"),
+        // frames decoded as a device message
+        FRAMES_PARSED("framesParsed"),
+        // frames which could not be decoded
+        PARSE_FAILURES("parseFailures"),
+        // messages handled by a Thing
+        MESSAGES_DISPATCHED("messagesDispatched"),
+        // messages sent to the discovery
+        MESSAGES_DISCOVERED("messagesDiscovered"),
+        // messages from unknown devices which are not discoverable, or refused by the discovery queue
+        MESSAGES_DROPPED("messagesDropped"),
+        // packets enqueued for transmission
+        TX_QUEUED("txQueued"),
+        // packets written to the serial port
+        TX_SENT("txSent"),
+        // packets which could not be written to the serial port
+        TX_FAILURES("txFailures"),
+        // connections to the transceiver, after the first one
+        RECONNECTS("reconnects"),
+        // breaks in the sequence numbers of the received lines
+        SEQUENCE_GAPS("sequenceGaps"),
+        // lines lost in the sequence gaps
+        LINES_LOST("linesLost"),
+        // wraps of the sequence number (FF to 00)
+        SEQUENCE_WRAPS("sequenceWraps");
+
+        private final String channelId;
+
+        private Counter(String channelId) {
+            this.channelId = channelId;
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+    }
+
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final Map<String, LongAdder> framesByProtocol = new ConcurrentHashMap<>();
+
+    public RfLinkBridgeMetrics() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    public void add(Counter counter, long count) {
+        counters[counter.ordinal()].add(count);
+    }
+
+    /**
+     * Count a parsed frame
+     *
+     * @param protocol the protocol of the frame
+     */
+    public void countParsedFrame(String protocol) {
+        counters[Counter.FRAMES_PARSED.ordinal()].increment();
+        if (protocol != null) {
+            framesByProtocol.computeIfAbsent(protocol, key -> new LongAdder()).increment();
+        }
+    }
+
+    public long get(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    /**
+     * @return the current value of all the counters
+     */
+    public Map<Counter, Long> getCounters() {
+        Map<Counter, Long> values = new EnumMap<>(Counter.class);
+        for (Counter counter : Counter.values()) {
+            values.put(counter, get(counter));
+        }
+        return values;
+    }
+
+    /**
+     * @return the number of parsed frames, per protocol
+     */
+    public Map<String, Long> getParsedFrameCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : framesByProtocol.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    /**
+     * @param counts counts by name (e.g. per protocol)
+     * @return the counts as a JSON object, e.g. {"Oregon TempHygro":12,"X10":3}
+     */
+    public static String toJson(Map<String, Long> counts) {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(escapeJson(count.getKey())).append("\":").append(count.getValue());
+        }
+        return json.append('}').toString();
+    }
+
+    static String escapeJson(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkBridgeMetrics " + getCounters() + " " + getParsedFrameCounts();
+    }
+}
@@ -8,22 +8,44 @@
  */
 package org.openhab.binding.rflink.handler;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
 import org.openhab.binding.rflink.connector.RfLinkRxListener;
+import org.openhab.binding.rflink.handler.RfLinkBridgeLatency.Stage;
+import org.openhab.binding.rflink.handler.RfLinkBridgeMetrics.Counter;
 import org.openhab.binding.rflink.internal.EventMessageListener;
+import org.openhab.binding.rflink.internal.jfr.RfLinkJfr;
 import org.openhab.binding.rflink.message.RfLinkMessage;
 import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.openhab.binding.rflink.packet.RfLinkPacketType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  *
  * @author cartemere - Initial Contribution : externalize Rx/Tx from Bridge
+ * @author cartemere - log the processing latency
+ * @author cartemere - activity counters
+ * @author cartemere - per stage latency histograms
+ * @author cartemere - census of the RF devices heard
+ * @author cartemere - flight recorder
+ * @author cartemere - JFR events
+ * @author cartemere - sequence gap detection
+ * @author cartemere - drop the ignored devices before parsing
+ * @author cartemere - count the messages refused by the discovery queue as dropped
+ * @author cartemere - dispatch to the listeners of the device only
  *
  */
 public class RfLinkBridgeRxListener implements RfLinkRxListener {
 
+    // acknowledgements of the packets sent : 20;XX;OK; or 20;XX;PONG;
+    private static final int ACK_OFFSET = 6;
+    private static final String ACK_OK = "OK;";
+    private static final String ACK_PONG = "PONG;";
+
     private Logger logger = LoggerFactory.getLogger(RfLinkBridgeRxListener.class);
     RfLinkBridgeHandler bridge = null;
 
@@ -33,18 +55,98 @@ public class RfLinkBridgeRxListener implements RfLinkRxListener {
 
     @Override
     public synchronized void packetReceived(RfLinkPacket rfLinkPacket) {
-        RfLinkMessage message = new RfLinkMessage(rfLinkPacket);
+        RfLinkBridgeMetrics metrics = bridge.getMetrics();
+        RfLinkBridgeLatency latency = bridge.getLatency();
+        metrics.increment(Counter.FRAMES_RECEIVED);
+        RfLinkBridgeFlightRecorder flightRecorder = bridge.getFlightRecorder();
+        if (flightRecorder != null) {
+            flightRecorder.record(rfLinkPacket);
+        }
+        long framingNanos = rfLinkPacket.getReceivedNanos() - rfLinkPacket.getFrameStartNanos();
+        latency.record(Stage.FRAMING, framingNanos);
+        RfLinkJfr.frameReceived(rfLinkPacket.getType(), rfLinkPacket.getPacket(), framingNanos);
+        if (isAcknowledgement(rfLinkPacket)) {
+            // before the duplicate filter : the acknowledgements of repeated packets are identical
+            RfLinkBridgeTxQueue transmitQueue = bridge.getTransmitQueue();
+            long lastSentNanos = transmitQueue.getLastSentNanos();
+            if (lastSentNanos != 0) {
+                RfLinkJfr.ackReceived(transmitQueue.getLastSentFrame(), rfLinkPacket.getPacket(),
+                        rfLinkPacket.getReceivedNanos() - lastSentNanos);
+            }
+        }
+        if (rfLinkPacket.getType() == RfLinkPacketType.INPUT) {
+            // before the duplicate filter : the repeated copies of a frame are numbered too
+            int seqNbr = RfLinkMessage.parseSeqNbr(rfLinkPacket.getPacket());
+            if (seqNbr >= 0) {
+                int lost = bridge.getSequenceTracker().track(seqNbr);
+                if (lost > 0) {
+                    logger.debug("{} lines lost before {}", lost, rfLinkPacket);
+                }
+            }
+        }
+        if (bridge.getDuplicateFilter().isDuplicate(rfLinkPacket)) {
+            // repeated copy of a frame already handled : drop it before parsing
+            logger.trace("Dropping duplicate frame {}", rfLinkPacket);
+            metrics.increment(Counter.FRAMES_DUPLICATED);
+            bridge.updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE);
+            return;
+        }
+        String deviceKey = RfLinkMessage.parseDeviceKey(rfLinkPacket.getPacket());
+        if (deviceKey != null && isIgnoredDevice(deviceKey)) {
+            // no Thing claims this device, and it is not discoverable : drop it before parsing
+            logger.trace("Dropping frame from unknown device {}", deviceKey);
+            String protocol = RfLinkMessage.parseProtocol(rfLinkPacket.getPacket());
+            RfLinkBridgeCensus census = bridge.getCensus();
+            if (census != null) {
+                census.record(deviceKey, protocol, rfLinkPacket.getReceivedMillis());
+            }
+            bridge.getUnknownDeviceCache().countDroppedFrame(protocol);
+            metrics.increment(Counter.MESSAGES_DROPPED);
+            bridge.updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE);
+            return;
+        }
+        long dispatchNanos = System.nanoTime();
+        RfLinkMessage message;
+        try {
+            message = new RfLinkMessage(rfLinkPacket);
+        } catch (RuntimeException e) {
+            logger.debug("Unable to parse frame {} : {}", rfLinkPacket, e.getMessage());
+            metrics.increment(Counter.PARSE_FAILURES);
+            // the transceiver is alive, even if its line is not understood
+            bridge.updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE);
+            return;
+        }
+        long parseNanos = System.nanoTime() - dispatchNanos;
+        latency.record(Stage.PARSE, parseNanos);
+        RfLinkJfr.messageParsed(message.getDeviceKey(), message.getProtocol(), parseNanos);
         if (message.isEligibleForProcessing() || message.isEligibleForDiscovery()) {
+            metrics.countParsedFrame(message.getProtocol());
+            RfLinkBridgeCensus census = bridge.getCensus();
+            if (census != null && !isDebugLogMessage(message)) {
+                census.record(message.getDeviceKey(), message.getProtocol(), message.getReceivedMillis());
+            }
             if (isDebugLogMessage(message)) {
                 // ignore Debug & OK response messages...
+            } else if (isUnknownDevice(message)) {
+                // lines without a raw device key (RTS SHOW records) : dropped once parsed
+                logger.trace("Dropping frame from unknown device {}", message);
+                bridge.getUnknownDeviceCache().countDroppedFrame(message.getProtocol());
+                metrics.increment(Counter.MESSAGES_DROPPED);
             } else {
                 boolean packetProcessed = false;
-                // 1 - HANDLE THING LISTENERS
-                for (EventMessageListener eventMessageListener : bridge.getEventMessageListeners()) {
+                long lookupStartNanos = System.nanoTime();
+                long handlerNanos = 0;
+                // 1 - HANDLE THING LISTENERS (those bound to the device)
+                List<EventMessageListener> listeners = bridge.getEventMessageListeners(message.getDeviceKey());
+                for (EventMessageListener eventMessageListener : listeners) {
                     try {
                         if (eventMessageListener.canHandleMessage(message)) {
                             packetProcessed = true;
+                            long handlerStartNanos = System.nanoTime();
                             eventMessageListener.handleIncomingMessage(bridge.getThing().getUID(), message);
+                            long handlerDuration = System.nanoTime() - handlerStartNanos;
+                            latency.record(Stage.HANDLER, handlerDuration);
+                            handlerNanos += handlerDuration;
                         }
                     } catch (Exception e) {
                         logger.error(
@@ -52,26 +154,66 @@ public class RfLinkBridgeRxListener implements RfLinkRxListener {
                                 e);
                     }
                 }
+                // the lookup time : time spent in the loop, out of the handlers
+                latency.record(Stage.DISPATCH, System.nanoTime() - lookupStartNanos - handlerNanos);
+                if (packetProcessed) {
+                    metrics.increment(Counter.MESSAGES_DISPATCHED);
+                }
+                if (packetProcessed && logger.isDebugEnabled()) {
+                    long doneNanos = System.nanoTime();
+                    logger.debug("Processed {} in {} us (queued {} us)", message,
+                            TimeUnit.NANOSECONDS.toMicros(doneNanos - dispatchNanos),
+                            TimeUnit.NANOSECONDS.toMicros(dispatchNanos - message.getReceivedNanos()));
+                }
                 // 2 - HANDLE DISCOVERY
                 if (!packetProcessed) {
-                    discover(message);
+                    if (bridge.isDiscoveryEnabled(message.getDeviceKey())) {
+                        // handled asynchronously, with a lower priority than the configured Things
+                        if (bridge.getDiscoveryQueue().offer(message)) {
+                            metrics.increment(Counter.MESSAGES_DISCOVERED);
+                        } else {
+                            // discovery queue full : lost for the discovery
+                            metrics.increment(Counter.MESSAGES_DROPPED);
+                        }
+                    } else {
+                        bridge.getUnknownDeviceCache().add(message.getDeviceKey());
+                        metrics.increment(Counter.MESSAGES_DROPPED);
+                    }
                 }
             }
         }
         bridge.updateStatus(ThingStatus.ONLINE, ThingStatusDetail.NONE);
     }
 
-    private void discover(RfLinkMessage message) {
-        // current message has not been processed
-        if (bridge.getDiscoveryService() != null) {
-            bridge.getDiscoveryService().discoverThing(bridge.getThing().getUID(), message);
+    private boolean isUnknownDevice(RfLinkMessage message) {
+        return bridge.getUnknownDeviceCache().contains(message.getDeviceKey());
+    }
+
+    private boolean isIgnoredDevice(String deviceKey) {
+        RfLinkBridgeUnknownDeviceCache unknownDeviceCache = bridge.getUnknownDeviceCache();
+        if (unknownDeviceCache.contains(deviceKey)) {
+            return true;
+        }
+        if (!bridge.isDiscoveryEnabled(deviceKey) && bridge.findThingHandler(deviceKey) == null) {
+            // first frame of the device : same index as the Thing listeners, on the raw device key
+            unknownDeviceCache.add(deviceKey);
+            return true;
         }
+        return false;
     }
 
     @Override
     public void errorOccured(String error) {
         logger.error("Error occured: {}", error);
         bridge.updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.COMMUNICATION_ERROR);
+        bridge.dumpFlightRecorder("connector error : " + error, false);
+    }
+
+    private boolean isAcknowledgement(RfLinkPacket packet) {
+        // 20;XX;OK; or 20;XX;PONG;
+        String frame = packet.getPacket();
+        return packet.getType() == RfLinkPacketType.INPUT && frame != null
+                && (frame.startsWith(ACK_OK, ACK_OFFSET) || frame.startsWith(ACK_PONG, ACK_OFFSET));
     }
 
     private boolean isDebugLogMessage(RfLinkMessage message) {
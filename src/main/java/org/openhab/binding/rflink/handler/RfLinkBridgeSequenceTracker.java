@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import org.openhab.binding.rflink.handler.RfLinkBridgeMetrics.Counter;
+
+/**
+ * Tracks the sequence number of the lines sent by the transceiver, to detect the lines lost on the way (serial
+ * overruns, stalled reader).
+ * <p/>
+ * The transceiver numbers each line it sends with a 2 digits hexadecimal counter (20;XX;...), wrapping from FF to 00.
+ * A line whose number is not the expected one reveals a gap : the lines in between were lost. A line numbered 00
+ * out of sequence is a restart of the transceiver, not a gap.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkBridgeSequenceTracker {
+
+    private static final int SEQUENCE_MASK = 0xFF;
+
+    private final RfLinkBridgeMetrics metrics;
+
+    // last sequence number received (-1 = none since the connection)
+    private int lastSeqNbr = -1;
+    // lines received with a sequence number
+    private long trackedLines = 0;
+
+    public RfLinkBridgeSequenceTracker(RfLinkBridgeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Track the sequence number of a received line
+     *
+     * @param seqNbr the sequence number of the line (0-255)
+     * @return the number of lines lost right before this one
+     */
+    public synchronized int track(int seqNbr) {
+        int previous = lastSeqNbr;
+        lastSeqNbr = seqNbr;
+        trackedLines++;
+        if (previous < 0 || seqNbr == previous) {
+            // first line, or repeated number
+            return 0;
+        }
+        int lost = (seqNbr - previous - 1) & SEQUENCE_MASK;
+        if (lost != 0 && seqNbr == 0) {
+            // the transceiver restarted : its counter starts over
+            return 0;
+        }
+        if (seqNbr < previous) {
+            metrics.increment(Counter.SEQUENCE_WRAPS);
+        }
+        if (lost != 0) {
+            metrics.increment(Counter.SEQUENCE_GAPS);
+            metrics.add(Counter.LINES_LOST, lost);
+        }
+        return lost;
+    }
+
+    /**
+     * Forget the last sequence number (on reconnection : the lines sent meanwhile are not lost by the reader)
+     */
+    public synchronized void reset() {
+        lastSeqNbr = -1;
+    }
+
+    /**
+     * @return the number of lines received with a sequence number
+     */
+    public synchronized long getTrackedLines() {
+        return trackedLines;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RfLinkBridgeSequenceTracker [lines=" + trackedLines + ", gaps=" + metrics.get(Counter.SEQUENCE_GAPS)
+                + ", lost=" + metrics.get(Counter.LINES_LOST) + ", wraps=" + metrics.get(Counter.SEQUENCE_WRAPS) + "]";
+    }
+}
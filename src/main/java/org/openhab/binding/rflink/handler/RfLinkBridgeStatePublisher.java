@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Optional micro-batching of the channel State updates of the Things of a Bridge.
+ * <p/>
+ * The States published by a Thing are collected during a short window, starting with its first update : only the
+ * latest State of each channel is kept, and all of them are published together when the window expires. The latency
+ * added to a State update is bounded by the window.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkBridgeStatePublisher {
+
+    private Logger logger = LoggerFactory.getLogger(RfLinkBridgeStatePublisher.class);
+
+    private final ScheduledExecutorService scheduler;
+    private volatile long windowMillis = 0;
+    // Thing > (channel > latest State), only for the Things with a pending batch
+    private final Map<RfLinkThingHandler, Map<ChannelUID, State>> pendingStates = new HashMap<>();
+
+    private final LongAdder submittedCount = new LongAdder();
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+
+    public RfLinkBridgeStatePublisher(ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param windowMillis period (in milliseconds) during which the State updates of a Thing are collected (0 to
+     *                     publish them immediately)
+     */
+    public void setWindow(int windowMillis) {
+        this.windowMillis = Math.max(windowMillis, 0);
+    }
+
+    public boolean isEnabled() {
+        return windowMillis > 0;
+    }
+
+    /**
+     * Add a State update to the current batch of a Thing (a new batch is started if none is pending)
+     *
+     * @param handler    the Thing handler
+     * @param channelUID the updated channel
+     * @param state      the State to publish
+     */
+    public void publish(RfLinkThingHandler handler, ChannelUID channelUID, State state) {
+        submittedCount.increment();
+        synchronized (this) {
+            Map<ChannelUID, State> thingStates = pendingStates.get(handler);
+            if (thingStates == null) {
+                thingStates = new LinkedHashMap<>();
+                pendingStates.put(handler, thingStates);
+                scheduler.schedule(() -> flush(handler), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            thingStates.put(channelUID, state);
+        }
+    }
+
+    private void flush(RfLinkThingHandler handler) {
+        Map<ChannelUID, State> thingStates;
+        synchronized (this) {
+            thingStates = pendingStates.remove(handler);
+        }
+        if (thingStates != null) {
+            logger.trace("Publishing {} states of {}", thingStates.size(), handler);
+            for (Map.Entry<ChannelUID, State> channelState : thingStates.entrySet()) {
+                handler.publishState(channelState.getKey(), channelState.getValue());
+            }
+            batchCount.increment();
+            publishedCount.add(thingStates.size());
+        }
+    }
+
+    /**
+     * Drop the pending batch of a Thing (the Thing is disposed)
+     *
+     * @param handler the Thing handler
+     */
+    public synchronized void discard(RfLinkThingHandler handler) {
+        pendingStates.remove(handler);
+    }
+
+    public long getSubmittedCount() {
+        return submittedCount.sum();
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * @return the number of submitted State updates per published State update (1 if nothing was batched)
+     */
+    public double getBatchingRatio() {
+        long published = getPublishedCount();
+        return published == 0 ? 1 : (double) getSubmittedCount() / published;
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkBridgeStatePublisher [window=" + windowMillis + "ms, submitted=" + getSubmittedCount()
+                + ", published=" + getPublishedCount() + ", batches=" + getBatchCount() + ", ratio="
+                + String.format("%.2f", getBatchingRatio()) + "]";
+    }
+}
@@ -0,0 +1,396 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Last known channel States of the Things of a Bridge, kept in a memory mapped file to restore them on restart.
+ * <p/>
+ * The file is a header followed by fixed size slots, one per (device, channel) : a State is written in place in its
+ * slot when it is published, the OS flushes the modified pages to the file. The slot type is written last, so a slot
+ * interrupted while being written is ignored on restart. The slots of a removed Thing are freed, and reused by the
+ * next channels saved.
+ * <p/>
+ * Slot layout : type (1 byte), key length (1 byte), key "deviceId|channelId" (62 bytes), wall clock timestamp of the
+ * State (8 bytes), State value (56 bytes). States which can not be encoded (or with a too long key) are not saved.
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - free the slots of the removed Things
+ */
+public class RfLinkBridgeStateSnapshot {
+
+    public static final int DEFAULT_SLOT_COUNT = 1024;
+
+    private static final int MAGIC = 0x52464C53; // "RFLS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 128;
+    private static final int KEY_OFFSET = 2;
+    private static final int MAX_KEY_LENGTH = 62;
+    private static final int TIMESTAMP_OFFSET = KEY_OFFSET + MAX_KEY_LENGTH;
+    private static final int VALUE_OFFSET = TIMESTAMP_OFFSET + 8;
+    private static final int MAX_STRING_LENGTH = SLOT_SIZE - VALUE_OFFSET - 1;
+    private static final char KEY_SEPARATOR = '|';
+
+    private static final byte TYPE_FREE = 0;
+    // allocated slot, without a valid value (being written, or not encodable)
+    private static final byte TYPE_NONE = -1;
+    private static final byte TYPE_DECIMAL = 1;
+    private static final byte TYPE_PERCENT = 2;
+    private static final byte TYPE_HSB = 3;
+    private static final byte TYPE_ON_OFF = 4;
+    private static final byte TYPE_OPEN_CLOSED = 5;
+    private static final byte TYPE_UP_DOWN = 6;
+    private static final byte TYPE_STRING = 7;
+    private static final byte TYPE_DATE_TIME = 8;
+
+    /**
+     * A restored State, with the (wall clock) time at which it was published
+     */
+    public static final class Record {
+        private final State state;
+        private final long timestamp;
+
+        private Record(State state, long timestamp) {
+            this.state = state;
+            this.timestamp = timestamp;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private Logger logger = LoggerFactory.getLogger(RfLinkBridgeStateSnapshot.class);
+
+    private final int slotCount;
+    private MappedByteBuffer buffer = null;
+    // deviceId > (channelId > slot index)
+    private final Map<String, Map<String, Integer>> slots = new HashMap<>();
+    // freed slots, below nextFreeSlot : reused first
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextFreeSlot = 0;
+    private int usedSlots = 0;
+    private boolean fullReported = false;
+
+    public RfLinkBridgeStateSnapshot() {
+        this(DEFAULT_SLOT_COUNT);
+    }
+
+    public RfLinkBridgeStateSnapshot(int slotCount) {
+        this.slotCount = slotCount;
+    }
+
+    private static String normalize(String deviceId) {
+        return deviceId.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Map the snapshot file (created if it does not exist, reset if it is not a valid snapshot)
+     *
+     * @param file the snapshot file
+     */
+    public synchronized void open(File file) {
+        close();
+        file.getParentFile().mkdirs();
+        long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); FileChannel channel = raf.getChannel()) {
+            boolean valid = raf.length() == size;
+            raf.setLength(size);
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            if (!valid || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != slotCount) {
+                reset();
+            }
+            loadIndex();
+            logger.debug("Opened state snapshot {} : {} states", file, usedSlots);
+        } catch (IOException e) {
+            logger.warn("Unable to open the state snapshot {} : {}", file, e.getMessage());
+            buffer = null;
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < slotCount; i++) {
+            buffer.put(slotOffset(i), TYPE_FREE);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, slotCount);
+    }
+
+    private void loadIndex() {
+        slots.clear();
+        freeSlots.clear();
+        nextFreeSlot = 0;
+        usedSlots = 0;
+        fullReported = false;
+        for (int i = 0; i < slotCount; i++) {
+            int offset = slotOffset(i);
+            if (buffer.get(offset) == TYPE_FREE) {
+                continue;
+            }
+            String key = readKey(offset);
+            int separator = key.indexOf(KEY_SEPARATOR);
+            if (separator > 0) {
+                Integer previous = slots.computeIfAbsent(key.substring(0, separator), k -> new HashMap<>())
+                        .put(key.substring(separator + 1), i);
+                if (previous == null) {
+                    usedSlots++;
+                } else {
+                    // the same channel saved twice : the last slot wins
+                    buffer.put(slotOffset(previous), TYPE_FREE);
+                    freeSlots.add(previous);
+                }
+            } else {
+                // invalid key : the slot can not be looked up
+                buffer.put(offset, TYPE_FREE);
+                continue;
+            }
+            // the free slots before the last used one (freed on Thing removal) are reused first
+            for (int free = nextFreeSlot; free < i; free++) {
+                freeSlots.add(free);
+            }
+            nextFreeSlot = i + 1;
+        }
+    }
+
+    /**
+     * Flush the modified States to the file, and unmap it
+     */
+    public synchronized void close() {
+        if (buffer != null) {
+            buffer.force();
+            buffer = null;
+            slots.clear();
+            freeSlots.clear();
+        }
+    }
+
+    public synchronized boolean isOpen() {
+        return buffer != null;
+    }
+
+    /**
+     * Save the State of a channel (no-op if the snapshot is not open, or if the State can not be saved)
+     *
+     * @param deviceId  the device identifier
+     * @param channelId the channel identifier
+     * @param state     the published State
+     */
+    public synchronized void put(String deviceId, String channelId, State state) {
+        if (buffer == null || deviceId == null) {
+            return;
+        }
+        String device = normalize(deviceId);
+        Integer slot = slots.getOrDefault(device, Collections.emptyMap()).get(channelId);
+        if (slot == null) {
+            slot = allocateSlot(device, channelId);
+            if (slot == null) {
+                return;
+            }
+        }
+        int offset = slotOffset(slot);
+        // invalidate the slot while it is being written
+        buffer.put(offset, TYPE_NONE);
+        byte type = writeValue(offset + VALUE_OFFSET, state);
+        buffer.putLong(offset + TIMESTAMP_OFFSET, System.currentTimeMillis());
+        buffer.put(offset, type);
+    }
+
+    private Integer allocateSlot(String device, String channelId) {
+        byte[] key = (device + KEY_SEPARATOR + channelId).getBytes(StandardCharsets.UTF_8);
+        if (key.length > MAX_KEY_LENGTH) {
+            return null;
+        }
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.poll();
+        } else if (nextFreeSlot < slotCount) {
+            slot = nextFreeSlot++;
+        } else {
+            if (!fullReported) {
+                logger.warn("State snapshot is full ({} states) : new channels are not saved", slotCount);
+                fullReported = true;
+            }
+            return null;
+        }
+        usedSlots++;
+        int offset = slotOffset(slot);
+        buffer.put(offset, TYPE_NONE);
+        buffer.put(offset + 1, (byte) key.length);
+        for (int i = 0; i < key.length; i++) {
+            buffer.put(offset + KEY_OFFSET + i, key[i]);
+        }
+        slots.computeIfAbsent(device, k -> new HashMap<>()).put(channelId, slot);
+        return slot;
+    }
+
+    /**
+     * Free the slots of a device (e.g. its Thing was removed) : they are reused by the next channels saved
+     *
+     * @param deviceId the device identifier
+     */
+    public synchronized void remove(String deviceId) {
+        if (buffer == null || deviceId == null) {
+            return;
+        }
+        Map<String, Integer> deviceSlots = slots.remove(normalize(deviceId));
+        if (deviceSlots == null) {
+            return;
+        }
+        for (Integer slot : deviceSlots.values()) {
+            buffer.put(slotOffset(slot), TYPE_FREE);
+            freeSlots.add(slot);
+            usedSlots--;
+        }
+        fullReported = false;
+    }
+
+    /**
+     * @param deviceId the device identifier
+     * @return the saved States of the device, by channel (empty if none)
+     */
+    public synchronized Map<String, Record> getRecords(String deviceId) {
+        if (buffer == null || deviceId == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Integer> deviceSlots = slots.get(normalize(deviceId));
+        if (deviceSlots == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Record> records = new HashMap<>();
+        for (Map.Entry<String, Integer> deviceSlot : deviceSlots.entrySet()) {
+            int offset = slotOffset(deviceSlot.getValue());
+            State state = readValue(buffer.get(offset), offset + VALUE_OFFSET);
+            if (state != null) {
+                records.put(deviceSlot.getKey(), new Record(state, buffer.getLong(offset + TIMESTAMP_OFFSET)));
+            }
+        }
+        return records;
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private String readKey(int offset) {
+        byte[] key = new byte[Math.min(buffer.get(offset + 1) & 0xFF, MAX_KEY_LENGTH)];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = buffer.get(offset + KEY_OFFSET + i);
+        }
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private byte writeValue(int offset, State state) {
+        if (state instanceof HSBType) {
+            HSBType hsb = (HSBType) state;
+            buffer.putDouble(offset, hsb.getHue().doubleValue());
+            buffer.putDouble(offset + 8, hsb.getSaturation().doubleValue());
+            buffer.putDouble(offset + 16, hsb.getBrightness().doubleValue());
+            return TYPE_HSB;
+        } else if (state instanceof PercentType) {
+            buffer.putDouble(offset, ((PercentType) state).doubleValue());
+            return TYPE_PERCENT;
+        } else if (state instanceof DecimalType) {
+            buffer.putDouble(offset, ((DecimalType) state).doubleValue());
+            return TYPE_DECIMAL;
+        } else if (state instanceof OnOffType) {
+            buffer.put(offset, (byte) ((OnOffType) state).ordinal());
+            return TYPE_ON_OFF;
+        } else if (state instanceof OpenClosedType) {
+            buffer.put(offset, (byte) ((OpenClosedType) state).ordinal());
+            return TYPE_OPEN_CLOSED;
+        } else if (state instanceof UpDownType) {
+            buffer.put(offset, (byte) ((UpDownType) state).ordinal());
+            return TYPE_UP_DOWN;
+        } else if (state instanceof StringType) {
+            byte[] value = state.toString().getBytes(StandardCharsets.UTF_8);
+            if (value.length > MAX_STRING_LENGTH) {
+                return TYPE_NONE;
+            }
+            buffer.put(offset, (byte) value.length);
+            for (int i = 0; i < value.length; i++) {
+                buffer.put(offset + 1 + i, value[i]);
+            }
+            return TYPE_STRING;
+        } else if (state instanceof DateTimeType) {
+            buffer.putLong(offset, ((DateTimeType) state).getCalendar().getTimeInMillis());
+            return TYPE_DATE_TIME;
+        }
+        return TYPE_NONE;
+    }
+
+    private State readValue(byte type, int offset) {
+        switch (type) {
+            case TYPE_DECIMAL:
+                return new DecimalType(buffer.getDouble(offset));
+            case TYPE_PERCENT:
+                return new PercentType(BigDecimal.valueOf(buffer.getDouble(offset)));
+            case TYPE_HSB:
+                return new HSBType(new DecimalType(buffer.getDouble(offset)),
+                        new PercentType(BigDecimal.valueOf(buffer.getDouble(offset + 8))),
+                        new PercentType(BigDecimal.valueOf(buffer.getDouble(offset + 16))));
+            case TYPE_ON_OFF:
+                return OnOffType.values()[buffer.get(offset) & 1];
+            case TYPE_OPEN_CLOSED:
+                return OpenClosedType.values()[buffer.get(offset) & 1];
+            case TYPE_UP_DOWN:
+                return UpDownType.values()[buffer.get(offset) & 1];
+            case TYPE_STRING:
+                byte[] value = new byte[Math.min(buffer.get(offset) & 0xFF, MAX_STRING_LENGTH)];
+                for (int i = 0; i < value.length; i++) {
+                    value[i] = buffer.get(offset + 1 + i);
+                }
+                return new StringType(new String(value, StandardCharsets.UTF_8));
+            case TYPE_DATE_TIME:
+                Calendar calendar = Calendar.getInstance();
+                calendar.setTimeInMillis(buffer.getLong(offset));
+                return new DateTimeType(calendar);
+            default:
+                // no valid value
+                return null;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RfLinkBridgeStateSnapshot [open=" + (buffer != null) + ", states=" + usedSlots + "/" + slotCount
+                + "]";
+    }
+}
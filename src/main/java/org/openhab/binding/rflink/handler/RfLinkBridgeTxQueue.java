@@ -13,6 +13,9 @@ import java.util.Collection;
 import java.util.Queue;
 import java.util.concurrent.LinkedBlockingQueue;
 
+import org.openhab.binding.rflink.handler.RfLinkBridgeLatency.Stage;
+import org.openhab.binding.rflink.handler.RfLinkBridgeMetrics.Counter;
+import org.openhab.binding.rflink.internal.jfr.RfLinkJfr;
 import org.openhab.binding.rflink.packet.RfLinkPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +23,10 @@ import org.slf4j.LoggerFactory;
 /**
  *
  * @author cartemere - Initial Contribution : externalize Rx/Tx from Bridge
+ * @author cartemere - activity counters
+ * @author cartemere - queue and wire latency
+ * @author cartemere - flight recorder
+ * @author cartemere - JFR events
  *
  */
 public class RfLinkBridgeTxQueue {
@@ -28,6 +35,9 @@ public class RfLinkBridgeTxQueue {
 
     private RfLinkBridgeHandler bridge = null;
     private Queue<Collection<RfLinkPacket>> queue = null;
+    // last packet written to the transceiver, to time its acknowledgement
+    private volatile long lastSentNanos = 0;
+    private volatile String lastSentFrame = null;
 
     public RfLinkBridgeTxQueue(RfLinkBridgeHandler bridge) {
         this.bridge = bridge;
@@ -37,6 +47,11 @@ public class RfLinkBridgeTxQueue {
     public synchronized void enqueue(Collection<RfLinkPacket> outputPackets) throws IOException {
         boolean wasEmpty = queue.isEmpty();
         if (queue.offer(outputPackets)) {
+            bridge.getMetrics().add(Counter.TX_QUEUED, outputPackets.size());
+            if (!outputPackets.isEmpty()) {
+                RfLinkJfr.txEnqueued(outputPackets.iterator().next().getPacket(), outputPackets.size(),
+                        queue.size());
+            }
             if (wasEmpty) {
                 send();
             }
@@ -48,7 +63,56 @@ public class RfLinkBridgeTxQueue {
     public synchronized void send() throws IOException {
         while (!queue.isEmpty()) {
             Collection<RfLinkPacket> packets = queue.poll();
-            bridge.getConnector().sendMessages(packets);
+            long sendStartNanos = System.nanoTime();
+            long queueNanos = 0;
+            if (!packets.isEmpty()) {
+                // output packets are stamped on creation, when the command is handled
+                long createdNanos = packets.iterator().next().getReceivedNanos();
+                queueNanos = sendStartNanos - createdNanos;
+                bridge.getLatency().record(Stage.TX_QUEUE, queueNanos);
+            }
+            try {
+                bridge.getConnector().sendMessages(packets);
+                bridge.getLatency().record(Stage.TX_WIRE, System.nanoTime() - sendStartNanos);
+                bridge.getMetrics().add(Counter.TX_SENT, packets.size());
+            } catch (IOException e) {
+                bridge.getMetrics().add(Counter.TX_FAILURES, packets.size());
+                throw e;
+            } finally {
+                recordSentPackets(packets, sendStartNanos, queueNanos);
+            }
         }
     }
+
+    private void recordSentPackets(Collection<RfLinkPacket> packets, long sendStartNanos, long queueNanos) {
+        RfLinkBridgeFlightRecorder flightRecorder = bridge.getFlightRecorder();
+        long previousSentNanos = sendStartNanos;
+        for (RfLinkPacket packet : packets) {
+            // the packets written before a failure are stamped
+            long sentNanos = packet.getSentNanos();
+            if (sentNanos != 0) {
+                if (flightRecorder != null) {
+                    flightRecorder.record(packet.getType(), sentNanos, packet.getSentMillis(), packet.getPacket());
+                }
+                RfLinkJfr.txWritten(packet.getPacket(), queueNanos, sentNanos - previousSentNanos);
+                previousSentNanos = sentNanos;
+                lastSentFrame = packet.getPacket();
+                lastSentNanos = sentNanos;
+            }
+        }
+    }
+
+    /**
+     * @return the time (System.nanoTime) at which the last packet was written, 0 if none
+     */
+    public long getLastSentNanos() {
+        return lastSentNanos;
+    }
+
+    /**
+     * @return the last packet written, null if none
+     */
+    public String getLastSentFrame() {
+        return lastSentFrame;
+    }
 }
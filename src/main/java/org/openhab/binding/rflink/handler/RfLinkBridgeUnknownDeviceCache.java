@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded negative cache of the device keys that no Thing claimed on a Bridge.
+ * <p/>
+ * When such devices (typically the neighbours' sensors) are not discoverable (discovery disabled, or ignored by the
+ * discovery rules), their frames are dropped as soon as their device key is known, instead of being dispatched to
+ * every Thing listener.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkBridgeUnknownDeviceCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final int capacity;
+    // LRU ordered : least recently heard devices are evicted first
+    private final Map<String, Boolean> unknownDeviceKeys;
+    private final Map<String, LongAdder> droppedFramesByProtocol = new ConcurrentHashMap<>();
+
+    public RfLinkBridgeUnknownDeviceCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RfLinkBridgeUnknownDeviceCache(int capacity) {
+        this.capacity = capacity;
+        this.unknownDeviceKeys = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RfLinkBridgeUnknownDeviceCache.this.capacity;
+            }
+        };
+    }
+
+    public synchronized boolean contains(String deviceKey) {
+        return unknownDeviceKeys.get(deviceKey) != null;
+    }
+
+    public synchronized void add(String deviceKey) {
+        unknownDeviceKeys.put(deviceKey, Boolean.TRUE);
+    }
+
+    /**
+     * Remove a device key from the cache (a Thing has been registered for it)
+     *
+     * @param deviceKey the device key, case insensitive (same as the Thing deviceId matching)
+     */
+    public synchronized void invalidate(String deviceKey) {
+        if (deviceKey == null) {
+            return;
+        }
+        Iterator<String> iterator = unknownDeviceKeys.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (deviceKey.equalsIgnoreCase(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        unknownDeviceKeys.clear();
+    }
+
+    public synchronized int size() {
+        return unknownDeviceKeys.size();
+    }
+
+    public void countDroppedFrame(String protocol) {
+        droppedFramesByProtocol.computeIfAbsent(protocol == null ? "" : protocol, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return the number of early dropped frames, per protocol
+     */
+    public Map<String, Long> getDroppedFrameCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : droppedFramesByProtocol.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().sum());
+        }
+        return Collections.unmodifiableMap(counts);
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkBridgeUnknownDeviceCache [size=" + size() + "/" + capacity + ", dropped="
+                + getDroppedFrameCounts() + "]";
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.ChannelUID;
+import org.eclipse.smarthome.core.thing.Thing;
+import org.eclipse.smarthome.core.thing.ThingStatus;
+import org.eclipse.smarthome.core.thing.ThingStatusDetail;
+import org.eclipse.smarthome.core.thing.ThingStatusInfo;
+import org.eclipse.smarthome.core.thing.binding.BaseThingHandler;
+import org.eclipse.smarthome.core.thing.binding.ThingHandler;
+import org.eclipse.smarthome.core.types.Command;
+import org.eclipse.smarthome.core.types.RefreshType;
+import org.eclipse.smarthome.core.types.UnDefType;
+import org.openhab.binding.rflink.RfLinkBindingConstants;
+import org.openhab.binding.rflink.config.RfLinkRtsGroupConfiguration;
+import org.openhab.binding.rflink.connector.RfLinkSerialConnector;
+import org.openhab.binding.rflink.exceptions.RfLinkException;
+import org.openhab.binding.rflink.exceptions.RfLinkNotImpException;
+import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@link RfLinkRtsGroupHandler} sends a single command to a set of Somfy RTS devices (e.g. close all the
+ * shutters).
+ * <p/>
+ * The transmission of the whole group is planned in one pass : the packets of the members are sent in the configured
+ * order, as a single batch on the Bridge transmit queue, and the position tracker of each member (if configured)
+ * starts from the expected airtime of its packets. The group reports when all its members are expected to complete
+ * the command (UNDEF when none of its members tracks its position).
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - expected finish anchored on the planning time
+ */
+public class RfLinkRtsGroupHandler extends BaseThingHandler {
+
+    private Logger logger = LoggerFactory.getLogger(RfLinkRtsGroupHandler.class);
+
+    private RfLinkBridgeHandler bridgeHandler;
+
+    private RfLinkRtsGroupConfiguration config;
+
+    public RfLinkRtsGroupHandler(Thing thing) {
+        super(thing);
+    }
+
+    @Override
+    public void handleCommand(ChannelUID channelUID, Command command) {
+        logger.debug("Received channel: {}, command: {}", channelUID, command);
+        if (bridgeHandler == null || command instanceof RefreshType) {
+            return;
+        }
+        switch (channelUID.getId()) {
+            case RfLinkBindingConstants.CHANNEL_SHUTTER:
+            case RfLinkBindingConstants.CHANNEL_COMMAND:
+                sendGroupCommand(command);
+                break;
+            default:
+                logger.debug("Channel {} does not accept commands", channelUID);
+        }
+    }
+
+    private synchronized void sendGroupCommand(Command command) {
+        Collection<RfLinkPacket> outputPackets = new ArrayList<>();
+        long start = System.nanoTime();
+        // wall clock time of the planning : the airtimes and the expected finish are relative to it
+        long startMillis = System.currentTimeMillis();
+        long endOfGroupCommand = start;
+        boolean tracked = false;
+        for (String memberId : config.getMemberIds()) {
+            RfLinkThingHandler member = bridgeHandler.findThingHandler(memberId);
+            if (member == null) {
+                logger.warn("RTS group {} : no Thing for member {}, skipped", getThing().getUID(), memberId);
+                continue;
+            }
+            // packets are sent one after the other, spaced by the connector
+            long airtime = start + TimeUnit.MILLISECONDS.toNanos(
+                    (long) outputPackets.size() * RfLinkSerialConnector.SEND_DELAY);
+            try {
+                long endOfMemberCommand = member.planGroupCommand(command, airtime, outputPackets);
+                endOfGroupCommand = Math.max(endOfGroupCommand, endOfMemberCommand);
+                tracked |= member.getConfiguration().isRtsPositionTrackerEnabled();
+            } catch (RfLinkNotImpException e) {
+                logger.error("Message not supported: {}", e.getMessage());
+            } catch (RfLinkException e) {
+                logger.error("RTS group {} : could not plan command {} for member {}: {}", getThing().getUID(),
+                        command, memberId, e.getMessage());
+            }
+        }
+        logger.debug("RTS group {} : sending {} packets, expected to complete in {}ms", getThing().getUID(),
+                outputPackets.size(), TimeUnit.NANOSECONDS.toMillis(endOfGroupCommand - start));
+        try {
+            bridgeHandler.processPackets(outputPackets);
+        } catch (RfLinkException e) {
+            logger.error("Transmitting error: {}", e.getMessage());
+        }
+        if (tracked) {
+            updateExpectedFinish(startMillis + TimeUnit.NANOSECONDS.toMillis(endOfGroupCommand - start));
+        } else {
+            // no position tracking : the completion of the command is unknown
+            updateState(RfLinkBindingConstants.CHANNEL_EXPECTED_FINISH, UnDefType.UNDEF);
+        }
+    }
+
+    private void updateExpectedFinish(long finishMillis) {
+        Calendar expectedFinish = Calendar.getInstance();
+        expectedFinish.setTimeInMillis(finishMillis);
+        updateState(RfLinkBindingConstants.CHANNEL_EXPECTED_FINISH, new DateTimeType(expectedFinish));
+    }
+
+    @Override
+    public void initialize() {
+        config = getConfigAs(RfLinkRtsGroupConfiguration.class);
+        logger.debug("Initializing RTS group {}, members={}", getThing().getUID(), config.members);
+        Bridge currentBridge = getBridge();
+        if (currentBridge == null) {
+            initializeBridge(null, null);
+        } else {
+            initializeBridge(currentBridge.getHandler(), currentBridge.getStatus());
+        }
+    }
+
+    @Override
+    public void bridgeStatusChanged(ThingStatusInfo bridgeStatusInfo) {
+        Bridge currentBridge = getBridge();
+        if (currentBridge == null) {
+            initializeBridge(null, bridgeStatusInfo.getStatus());
+        } else {
+            initializeBridge(currentBridge.getHandler(), bridgeStatusInfo.getStatus());
+        }
+    }
+
+    private void initializeBridge(ThingHandler thingHandler, ThingStatus bridgeStatus) {
+        List<String> memberIds = config.getMemberIds();
+        if (memberIds.isEmpty()) {
+            updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.CONFIGURATION_ERROR, "RTS group has no members");
+        } else if (thingHandler != null && bridgeStatus != null) {
+            bridgeHandler = (RfLinkBridgeHandler) thingHandler;
+            if (bridgeStatus == ThingStatus.ONLINE) {
+                updateStatus(ThingStatus.ONLINE);
+            } else {
+                updateStatus(ThingStatus.OFFLINE, ThingStatusDetail.BRIDGE_OFFLINE);
+            }
+        } else {
+            updateStatus(ThingStatus.OFFLINE);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        logger.debug("RTS group {} disposed.", getThing().getUID());
+        bridgeHandler = null;
+        super.dispose();
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkRtsGroupHandler [" + config + "]";
+    }
+}
@@ -8,13 +8,14 @@
  */
 package org.openhab.binding.rflink.handler;
 
-import java.util.concurrent.ScheduledFuture;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.library.types.DecimalType;
 import org.eclipse.smarthome.core.library.types.PercentType;
 import org.eclipse.smarthome.core.library.types.StopMoveType;
 import org.eclipse.smarthome.core.library.types.UpDownType;
-import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.types.Command;
 import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
@@ -23,6 +24,8 @@ import org.openhab.binding.rflink.event.RfLinkEventFactory;
 import org.openhab.binding.rflink.event.RfLinkRtsEvent;
 import org.openhab.binding.rflink.exceptions.RfLinkException;
 import org.openhab.binding.rflink.exceptions.RfLinkNotImpException;
+import org.openhab.binding.rflink.internal.RfLinkTimerWheel;
+import org.openhab.binding.rflink.packet.RfLinkPacket;
 import org.openhab.binding.rflink.packet.RfLinkPacketType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,15 +44,23 @@ import org.slf4j.LoggerFactory;
  * to guess the physical Shutter's moves and position.
  *
  * @author cartemere - initial Contribution. Handle UP/DOWN/STOP/PercentType events, scheduler based
+ * @author cartemere - driven by the binding timer wheel, on the monotonic clock
+ * @author cartemere - planned commands (RTS groups)
+ * @author cartemere - position published on each position step, timed from the shutter duration
+ * @author cartemere - warm start from the state snapshot
+ * @author cartemere - transmission and publication handed off the timer wheel thread
  *
  */
 public class RfLinkRtsPositionHandler {
 
+    // snapshot only channel : moving direction (-1, 0, 1) on the last command
+    public static final String SNAPSHOT_DIRECTION = "shutterDirection";
+
     private Logger logger = LoggerFactory.getLogger(RfLinkRtsPositionHandler.class);
 
     // the RtsShutterInfos identifier
     private RfLinkThingHandler handler;
-    // the duration for the shutter to move from full open to full closed
+    // the duration (in nanoseconds) for the shutter to move from full open to full closed
     private long shutterEffectiveDuration;
 
     // shutter position on the last Event
@@ -60,16 +71,47 @@ public class RfLinkRtsPositionHandler {
     // private Command commandProcessedRaw = StopMoveType.STOP;
     // input Command converted to an effective action : STOP, UP, DOWN
     private Command commandProcessedEffective = StopMoveType.STOP;
-    // timestamp on the last action
-    private long timestampOnLastEvent = System.currentTimeMillis();
-    private long statusRefreshRate = 1000;
-    private ScheduledFuture<?> schedulerStatus = null;
-    private ScheduledFuture<?> schedulerTarget = null;
+    // timestamp (System.nanoTime) on the last action
+    private long timestampOnLastEvent = System.nanoTime();
+    // the duration (in nanoseconds) for the shutter to move by one position step
+    private long positionStepDuration;
+    private PercentType positionPublished = null;
+    private RfLinkTimerWheel.Timeout schedulerStatus = null;
+    private RfLinkTimerWheel.Timeout schedulerTarget = null;
+    // timestamp (System.nanoTime) at which the shutter is expected to stop moving
+    private long expectedEndOfMove = System.nanoTime();
+    // when planning a command : the packets to transmit are collected instead of being sent
+    private Collection<RfLinkPacket> plannedPackets = null;
+    // incremented on each command, to drop the transmissions handed off for a previous command
+    private long commandGeneration = 0;
 
     public RfLinkRtsPositionHandler(RfLinkThingHandler handler) {
+        this(handler, PercentType.ZERO, 0, 0);
+    }
+
+    /**
+     * Restore the tracking from the last known position : if the shutter was moving, it is expected to have kept on
+     * moving in the meantime.
+     *
+     * @param handler       the Thing handler
+     * @param lastPosition  the last known position
+     * @param lastWay       the moving direction at the last known position (-1, 0, 1)
+     * @param elapsedMillis the time elapsed since the last known position
+     */
+    public RfLinkRtsPositionHandler(RfLinkThingHandler handler, PercentType lastPosition, int lastWay,
+            long elapsedMillis) {
         this.handler = handler;
-        this.shutterEffectiveDuration = handler.getConfiguration().shutterDuration * 1000;
+        this.shutterEffectiveDuration = TimeUnit.SECONDS.toNanos(handler.getConfiguration().shutterDuration);
+        int positionStep = Math.min(Math.max(handler.getConfiguration().positionStep, 1), 100);
+        this.positionStepDuration = Math.max(shutterEffectiveDuration * positionStep / 100, 1);
+        long displacement = lastWay == 0 ? 0
+                : Math.round(100.0 * TimeUnit.MILLISECONDS.toNanos(Math.max(elapsedMillis, 0))
+                        / shutterEffectiveDuration);
+        long position = lastPosition.intValue() + Integer.signum(lastWay) * Math.min(displacement, 100);
+        positionFrom = new PercentType((int) Math.min(100, Math.max(0, position)));
+        positionStatus = positionFrom;
         updateShutterPositionState(positionFrom);
+        recordDirection();
     }
 
     /**
@@ -80,12 +122,37 @@ public class RfLinkRtsPositionHandler {
      */
     public synchronized void handleCommand(RfLinkRtsEvent rtsEvent) {
         // STEP 0 : stop all scheduled task on previous command (if any)
-        stopSchedulerStatus(true);
-        stopSchedulerTarget(true);
+        commandGeneration++;
+        stopSchedulerStatus();
+        stopSchedulerTarget();
         // STEP 1 : handle what was ongoing BEFORE the current Command
         handlePreviousCommand();
         // STEP 2 : handle the current Command
-        handleCurrentCommand(rtsEvent);
+        handleCurrentCommand(rtsEvent, System.nanoTime());
+    }
+
+    /**
+     * Plan a command which will be transmitted later, along with other commands (RTS group) : the position tracking
+     * starts from the planned airtime, and the packets to transmit are collected instead of being sent.
+     *
+     * @param rtsEvent      the input {@link RfLinkRtsEvent} event to handle (see {@link #handleCommand})
+     * @param airtime       the timestamp (System.nanoTime) at which the command is expected to be transmitted
+     * @param outputPackets the collection to add the packets to transmit to
+     * @return the timestamp (System.nanoTime) at which the shutter is expected to stop moving
+     */
+    public synchronized long planCommand(RfLinkRtsEvent rtsEvent, long airtime,
+            Collection<RfLinkPacket> outputPackets) {
+        commandGeneration++;
+        stopSchedulerStatus();
+        stopSchedulerTarget();
+        handlePreviousCommand();
+        plannedPackets = outputPackets;
+        try {
+            handleCurrentCommand(rtsEvent, Math.max(airtime, System.nanoTime()));
+        } finally {
+            plannedPackets = null;
+        }
+        return expectedEndOfMove;
     }
 
     private void handlePreviousCommand() {
@@ -97,8 +164,9 @@ public class RfLinkRtsPositionHandler {
         }
     }
 
-    private void handleCurrentCommand(RfLinkRtsEvent rtsEvent) {
-        timestampOnLastEvent = System.currentTimeMillis();
+    private void handleCurrentCommand(RfLinkRtsEvent rtsEvent, long airtime) {
+        timestampOnLastEvent = airtime;
+        expectedEndOfMove = airtime;
         Command command = rtsEvent.getCommand();
         rtsEvent.getMessage().getPacketType();
         logger.info("> received Intent=" + command + " for event " + rtsEvent);
@@ -114,7 +182,9 @@ public class RfLinkRtsPositionHandler {
             if (commandProcessedEffective instanceof UpDownType) {
                 long delayToTarget = computeDelayFromMoveValue(moveValue);
                 Command commandAtTarget = getCommandAtTargetPosition(targetPosition);
+                expectedEndOfMove = airtime + delayToTarget;
                 schedulePositionTarget(rtsEvent, delayToTarget, commandAtTarget);
+                schedulePositionRefresh();
             }
         } else if (command instanceof UpDownType) {
             commandProcessedEffective = command;
@@ -122,10 +192,17 @@ public class RfLinkRtsPositionHandler {
             // int moveValue = getMoveFromTargetPosition(targetPosition);
             // long delayToTarget = computeDelayFromMoveValue(moveValue);
             sendEventCommand(rtsEvent);
+            int moveToBound = (UpDownType.UP.equals(command) ? 100 : 0) - positionFrom.intValue();
+            expectedEndOfMove = airtime + computeDelayFromMoveValue(moveToBound);
             schedulePositionRefresh();
         } else {
             logger.error("Provided RfLinkEvent " + rtsEvent + " does not hold a valid command : " + command);
         }
+        recordDirection();
+    }
+
+    private void recordDirection() {
+        handler.recordState(SNAPSHOT_DIRECTION, new DecimalType(getWayFromCommand(commandProcessedEffective)));
     }
 
     private Command getCommandAtTargetPosition(PercentType targetPosition) {
@@ -144,38 +221,86 @@ public class RfLinkRtsPositionHandler {
     }
 
     private void schedulePositionRefresh() {
-        // update position at a fixed rate while moving
-        logger.debug("SCHEDULE position update at " + statusRefreshRate + "ms");
-        schedulerStatus = handler.getScheduler().scheduleWithFixedDelay(() -> {
-            logger.debug("SCHEDULE: Update rolling status on " + handler.getThing().getThingTypeUID());
-            positionStatus = computeSnapshotPositionFromDelay();
-            updateShutterPositionState(positionStatus);
-            if (isPositionBoundReached(positionStatus)) {
-                // can not go further, stop refreshing the status
-                stopSchedulerStatus(false);
+        // update position each time the shutter moves by one more position step while moving
+        long now = System.nanoTime();
+        long nextStep = Math.max(now - timestampOnLastEvent, 0) / positionStepDuration + 1;
+        long delayToNextStep = timestampOnLastEvent + nextStep * positionStepDuration - now;
+        logger.debug("SCHEDULE position update in " + TimeUnit.NANOSECONDS.toMillis(delayToNextStep) + "ms");
+        schedulerStatus = handler.getTimerWheel().schedule(() -> {
+            synchronized (this) {
+                logger.debug("SCHEDULE: Update rolling status on " + handler.getThing().getThingTypeUID());
+                positionStatus = computeSnapshotPositionFromDelay();
+                updateShutterPositionState(positionStatus);
+                if (isPositionBoundReached(positionStatus)) {
+                    // can not go further, stop refreshing the status
+                    stopSchedulerStatus();
+                } else if (schedulerStatus != null) {
+                    schedulePositionRefresh();
+                }
             }
-        }, statusRefreshRate, statusRefreshRate, TimeUnit.MILLISECONDS);
+        }, delayToNextStep, TimeUnit.NANOSECONDS);
     }
 
     private void schedulePositionTarget(RfLinkEvent event, long delayTillCommandEnd, Command sendCommandAtTarget) {
         if (isOutputEvent(event)) {
             // update position at target position
-            logger.debug(
-                    "SCHEDULE position TARGET at " + delayTillCommandEnd + "ms with command=" + sendCommandAtTarget);
-            schedulerTarget = handler.getScheduler().schedule(() -> {
-                logger.debug("SCHEDULE: Update final status on " + handler.getThing().getUID());
-                stopSchedulerTarget(false);
-                positionFrom = computeSnapshotPositionFromDelay();
-                updateShutterPositionState(positionFrom);
-                sendCommand(sendCommandAtTarget);
-            }, delayTillCommandEnd, TimeUnit.MILLISECONDS);
+            logger.debug("SCHEDULE position TARGET at " + TimeUnit.NANOSECONDS.toMillis(delayTillCommandEnd)
+                    + "ms with command=" + sendCommandAtTarget);
+            schedulerTarget = handler.getTimerWheel().schedule(() -> {
+                Collection<RfLinkPacket> packets = new ArrayList<>();
+                long generation;
+                synchronized (this) {
+                    logger.debug("SCHEDULE: Update final status on " + handler.getThing().getUID());
+                    stopSchedulerStatus();
+                    stopSchedulerTarget();
+                    positionFrom = computeSnapshotPositionFromDelay();
+                    updateShutterPositionState(positionFrom);
+                    // bookkeeping only on the wheel thread : the STOP is transmitted by the hand-off thread
+                    plannedPackets = packets;
+                    try {
+                        sendCommand(sendCommandAtTarget);
+                    } finally {
+                        plannedPackets = null;
+                    }
+                    generation = commandGeneration;
+                }
+                if (!packets.isEmpty()) {
+                    handler.getTimerWheel().handOff(() -> transmit(packets, generation));
+                }
+            }, getDelayToAirtime() + delayTillCommandEnd, TimeUnit.NANOSECONDS);
         }
     }
 
+    private long getDelayToAirtime() {
+        // a planned command starts moving the shutter later
+        return Math.max(timestampOnLastEvent - System.nanoTime(), 0);
+    }
+
     private void updateShutterPositionState(PercentType position) {
+        if (position.equals(positionPublished)) {
+            // the shutter did not move enough since the last update
+            return;
+        }
         logger.debug("update position to " + position + " on " + handler.getThing().getUID());
-        handler.updateState(new ChannelUID(handler.getThing().getUID(), RfLinkBindingConstants.CHANNEL_SHUTTER),
-                position);
+        positionPublished = position;
+        // from the timer wheel : published along with the other positions of the tick, by the hand-off thread
+        handler.getTimerWheel().handOff(
+                () -> handler.updateState(handler.getChannelUID(RfLinkBindingConstants.CHANNEL_SHUTTER), position));
+    }
+
+    private void transmit(Collection<RfLinkPacket> packets, long generation) {
+        synchronized (this) {
+            if (generation != commandGeneration) {
+                // a new command was handled meanwhile : this transmission is outdated
+                logger.debug("dropping outdated transmission on " + handler.getThing().getUID());
+                return;
+            }
+        }
+        try {
+            handler.getBridgeHandler().processPackets(packets);
+        } catch (RfLinkException e) {
+            logger.error("Could not send packets " + packets + " on bridge " + handler.getBridgeHandler(), e);
+        }
     }
 
     private void sendCommand(Command command) {
@@ -185,8 +310,9 @@ public class RfLinkRtsPositionHandler {
             try {
                 RfLinkEvent event = RfLinkEventFactory.createEventFromType(handler.getThing().getThingTypeUID());
                 event.initializeFromChannel(handler.getConfiguration(),
-                        new ChannelUID(handler.getThing().getUID(), RfLinkBindingConstants.CHANNEL_SHUTTER), command);
+                        handler.getChannelUID(RfLinkBindingConstants.CHANNEL_SHUTTER), command);
                 sendEventCommand(event);
+                recordDirection();
             } catch (RfLinkException | RfLinkNotImpException e) {
                 logger.error("Could not send Command " + command, e);
             }
@@ -196,7 +322,11 @@ public class RfLinkRtsPositionHandler {
     private void sendEventCommand(RfLinkEvent event) {
         if (isOutputEvent(event)) {
             try {
-                handler.getBridgeHandler().processPackets(event.buildOutputPackets());
+                if (plannedPackets != null) {
+                    plannedPackets.addAll(event.buildOutputPackets());
+                } else {
+                    handler.getBridgeHandler().processPackets(event.buildOutputPackets());
+                }
             } catch (RfLinkException e) {
                 logger.error("Could not send Event " + event + " on bridge " + handler.getBridgeHandler(), e);
             }
@@ -230,7 +360,8 @@ public class RfLinkRtsPositionHandler {
 
     private PercentType computeSnapshotPositionFromDelay() {
         // compute duration since previous command
-        long effectiveDuration = System.currentTimeMillis() - timestampOnLastEvent;
+        // (a planned command may not be on air yet)
+        long effectiveDuration = Math.max(System.nanoTime() - timestampOnLastEvent, 0);
         // compute displacement during duration
         long displacementPercentValue = Math.round(100.0 * effectiveDuration / shutterEffectiveDuration);
         int way = getWayFromCommand(commandProcessedEffective);
@@ -240,13 +371,13 @@ public class RfLinkRtsPositionHandler {
         newPositionValue = Math.min(100, Math.max(0, newPositionValue));
         int newPositionTrimedValue = newPositionValue.intValue();
         logger.debug("computed position=" + newPositionTrimedValue + " from " + startPositionValue + " after moving "
-                + commandProcessedEffective + " for " + effectiveDuration + "ms");
+                + commandProcessedEffective + " for " + TimeUnit.NANOSECONDS.toMillis(effectiveDuration) + "ms");
         return new PercentType(newPositionTrimedValue);
     }
 
     private long computeDelayFromMoveValue(int moveValue) {
         long delay = Math.abs(moveValue) * shutterEffectiveDuration / 100;
-        logger.debug("computed delay=" + delay + "ms for move=" + moveValue);
+        logger.debug("computed delay=" + TimeUnit.NANOSECONDS.toMillis(delay) + "ms for move=" + moveValue);
         return delay;
     }
 
@@ -259,20 +390,28 @@ public class RfLinkRtsPositionHandler {
         return way;
     }
 
-    private void stopSchedulerStatus(boolean forceCancel) {
+    private void stopSchedulerStatus() {
         if (schedulerStatus != null && !schedulerStatus.isCancelled()) {
-            schedulerStatus.cancel(forceCancel);
+            schedulerStatus.cancel();
             schedulerStatus = null;
         }
     }
 
-    private void stopSchedulerTarget(boolean forceCancel) {
+    private void stopSchedulerTarget() {
         if (schedulerTarget != null && !schedulerTarget.isCancelled()) {
-            schedulerTarget.cancel(forceCancel);
+            schedulerTarget.cancel();
             schedulerTarget = null;
         }
     }
 
+    /**
+     * Stop tracking the position (the Thing is disposed)
+     */
+    public synchronized void dispose() {
+        stopSchedulerStatus();
+        stopSchedulerTarget();
+    }
+
     @Override
     public String toString() {
         return "RfLinkRtsPositionHandler [" + handler + "]";
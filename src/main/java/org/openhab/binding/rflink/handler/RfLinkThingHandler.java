@@ -9,10 +9,17 @@
 package org.openhab.binding.rflink.handler;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.PercentType;
 import org.eclipse.smarthome.core.thing.Bridge;
+import org.eclipse.smarthome.core.thing.Channel;
 import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
@@ -24,13 +31,17 @@ import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.RefreshType;
 import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
+import org.openhab.binding.rflink.event.RfLinkColorEvent;
 import org.openhab.binding.rflink.event.RfLinkEvent;
 import org.openhab.binding.rflink.event.RfLinkEventFactory;
 import org.openhab.binding.rflink.event.RfLinkRtsEvent;
 import org.openhab.binding.rflink.exceptions.RfLinkException;
 import org.openhab.binding.rflink.exceptions.RfLinkNotImpException;
 import org.openhab.binding.rflink.internal.EventMessageListener;
+import org.openhab.binding.rflink.internal.RfLinkTimerWheel;
+import org.openhab.binding.rflink.internal.jfr.RfLinkJfr;
 import org.openhab.binding.rflink.message.RfLinkMessage;
 import org.openhab.binding.rflink.packet.RfLinkPacket;
 import org.slf4j.Logger;
@@ -45,6 +56,17 @@ import org.slf4j.LoggerFactory;
  * @author Arjan Mels - Added option to repeat messages
  * @author cartemere - handle RTS position tracking
  * @author cartemere - refactor to provide Handler config to the Device
+ * @author cartemere - only publish State changes
+ * @author cartemere - per channel dead-band and minimum interval, REFRESH support
+ * @author cartemere - windowed aggregation of the high rate channels
+ * @author cartemere - micro-batched State updates
+ * @author cartemere - bridge scoped color state store
+ * @author cartemere - RTS position tracking driven by the binding timer wheel
+ * @author cartemere - planned commands of the RTS groups
+ * @author cartemere - warm start from the bridge state snapshot
+ * @author cartemere - classification latency
+ * @author cartemere - JFR events
+ * @author cartemere - snapshot freed on removal, outdated sensor States not restored
  */
 public class RfLinkThingHandler extends BaseThingHandler implements EventMessageListener {
 
@@ -53,16 +75,31 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
 
     private RfLinkRtsPositionHandler rtsPositionTracker = null;
 
+    private final RfLinkTimerWheel timerWheel;
+
     private RfLinkBridgeHandler bridgeHandler;
 
     private RfLinkDeviceConfiguration config;
 
-    public RfLinkThingHandler(Thing thing) {
+    private RfLinkThingStateFilter stateFilter = null;
+    private ScheduledFuture<?> pendingStatesTask = null;
+
+    private volatile RfLinkThingStateAggregator stateAggregator = null;
+    private ScheduledFuture<?> aggregationTask = null;
+
+    // the states saved in the bridge snapshot are restored once per initialization
+    private boolean snapshotRestored = false;
+
+    // channel id > ChannelUID, built on initialization (Thing updates included)
+    private volatile Map<String, ChannelUID> channelUIDs = Collections.emptyMap();
+
+    public RfLinkThingHandler(Thing thing, RfLinkTimerWheel timerWheel) {
         super(thing);
+        this.timerWheel = timerWheel;
     }
 
-    protected ScheduledExecutorService getScheduler() {
-        return scheduler;
+    protected RfLinkTimerWheel getTimerWheel() {
+        return timerWheel;
     }
 
     protected RfLinkBridgeHandler getBridgeHandler() {
@@ -75,7 +112,38 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
 
     @Override
     protected void updateState(ChannelUID channelUID, State state) {
+        recordState(channelUID.getId(), state);
+        dispatchState(channelUID, state);
+    }
+
+    private void dispatchState(ChannelUID channelUID, State state) {
+        RfLinkBridgeHandler bridge = bridgeHandler;
+        if (bridge != null && bridge.getStatePublisher().isEnabled()) {
+            // published with the other updates of the batch
+            bridge.getStatePublisher().publish(this, channelUID, state);
+        } else {
+            publishState(channelUID, state);
+        }
+    }
+
+    void publishState(ChannelUID channelUID, State state) {
+        long publishStartNanos = System.nanoTime();
         super.updateState(channelUID, state);
+        RfLinkJfr.statePublished(config == null ? null : config.deviceId, channelUID.getId(), state,
+                System.nanoTime() - publishStartNanos);
+    }
+
+    /**
+     * Save the State of a channel to the bridge snapshot (if enabled), to restore it on restart
+     *
+     * @param channelId the channel identifier (may be a snapshot only channel)
+     * @param state     the State
+     */
+    void recordState(String channelId, State state) {
+        RfLinkBridgeHandler bridge = bridgeHandler;
+        if (bridge != null && config != null) {
+            bridge.getStateSnapshot().put(config.deviceId, channelId, state);
+        }
     }
 
     @Override
@@ -83,10 +151,11 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
         logger.debug("Received channel: {}, command: {}", channelUID, command);
         if (bridgeHandler != null) {
             if (command instanceof RefreshType) {
-                // Not supported
+                refreshChannelState(channelUID);
             } else {
                 try {
                     RfLinkEvent event = RfLinkEventFactory.createEventFromType(getThing().getThingTypeUID());
+                    attachStateStore(event);
                     event.initializeFromChannel(config, channelUID, command);
                     processEchoPackets(event);
                     if (handleRtsPositionTracker(this, event)) {
@@ -104,6 +173,34 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
         }
     }
 
+    /**
+     * Plan a command sent to the Thing through an RTS group : the packets to transmit are collected, to be sent
+     * along with the packets of the other members of the group.
+     *
+     * @param command       the command of the group
+     * @param airtime       the timestamp (System.nanoTime) at which the packets are expected to be transmitted
+     * @param outputPackets the collection to add the packets to transmit to
+     * @return the timestamp (System.nanoTime) at which the device is expected to complete the command
+     * @throws RfLinkException       if the command can not be converted to packets
+     * @throws RfLinkNotImpException if the command is not supported by the device
+     */
+    long planGroupCommand(Command command, long airtime, Collection<RfLinkPacket> outputPackets)
+            throws RfLinkException, RfLinkNotImpException {
+        RfLinkEvent event = RfLinkEventFactory.createEventFromType(getThing().getThingTypeUID());
+        event.initializeFromChannel(config, getChannelUID(RfLinkBindingConstants.CHANNEL_SHUTTER), command);
+        processEchoPackets(event);
+        if (config.isRtsPositionTrackerEnabled()) {
+            return getPositionTracker(this).planCommand((RfLinkRtsEvent) event, airtime, outputPackets);
+        }
+        int repeats = Math.min(Math.max(getConfiguration().repeats, 1), 20);
+        Collection<RfLinkPacket> packets = event.buildOutputPackets();
+        for (int i = 0; i < repeats; i++) {
+            outputPackets.addAll(packets);
+        }
+        updateThingStates(event);
+        return airtime;
+    }
+
     @Override
     public boolean canHandleMessage(RfLinkMessage incomingMessage) {
         if (config != null && config.deviceId != null
@@ -116,7 +213,13 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
     @Override
     public void handleIncomingMessage(ThingUID bridge, RfLinkMessage incomingMessage) throws Exception {
         if (incomingMessage.isEligibleForProcessing()) {
+            long classifyStartNanos = System.nanoTime();
             RfLinkEvent event = RfLinkEventFactory.createEventFromMessage(incomingMessage);
+            long classifyNanos = System.nanoTime() - classifyStartNanos;
+            bridgeHandler.getLatency().record(RfLinkBridgeLatency.Stage.CLASSIFY, classifyNanos);
+            RfLinkJfr.eventClassified(incomingMessage.getDeviceKey(), incomingMessage.getProtocol(), event,
+                    classifyNanos);
+            attachStateStore(event);
             event.initializeFromMessage(config, incomingMessage);
             processEchoPackets(event);
             updateStatus(ThingStatus.ONLINE);
@@ -125,6 +228,16 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
         }
     }
 
+    private void attachStateStore(RfLinkEvent event) {
+        if (event instanceof RfLinkColorEvent) {
+            ((RfLinkColorEvent) event).setStateStore(bridgeHandler.getColorStateStore());
+        }
+    }
+
+    private boolean isColorThing() {
+        return RfLinkBindingConstants.THING_TYPE_COLOR.equals(getThing().getThingTypeUID());
+    }
+
     private void processOutputPackets(RfLinkEvent event) throws RfLinkException {
         int repeats = Math.min(Math.max(getConfiguration().repeats, 1), 20);
         Collection<RfLinkPacket> packets = event.buildOutputPackets();
@@ -145,6 +258,10 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
     public void initialize() {
         config = getConfigAs(RfLinkDeviceConfiguration.class);
         logger.debug("Initializing thing {}, deviceId={}", getThing().getUID(), config.deviceId);
+        snapshotRestored = false;
+        stateFilter = new RfLinkThingStateFilter(config, getThing().getChannels());
+        channelUIDs = buildChannelUIDs();
+        initializeAggregation();
         Bridge currentBridge = getBridge();
         if (currentBridge == null) {
             initializeBridge(null, null);
@@ -173,6 +290,15 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
         } else if (thingHandler != null && bridgeStatus != null) {
             bridgeHandler = (RfLinkBridgeHandler) thingHandler;
             bridgeHandler.registerEventMessageListener(this);
+            // the device is not unknown anymore : stop dropping its frames
+            bridgeHandler.getUnknownDeviceCache().invalidate(config.deviceId);
+            if (isColorThing()) {
+                bridgeHandler.getColorStateStore().register(config.deviceId);
+            }
+            if (!snapshotRestored) {
+                snapshotRestored = true;
+                restoreSnapshotStates();
+            }
 
             if (bridgeStatus == ThingStatus.ONLINE) {
                 updateStatus(ThingStatus.ONLINE);
@@ -191,17 +317,179 @@ public class RfLinkThingHandler extends BaseThingHandler implements EventMessage
         logger.debug("Thing {} disposed.", getThing().getUID());
         if (bridgeHandler != null) {
             bridgeHandler.removeEventMessageListener(this);
+            bridgeHandler.getStatePublisher().discard(this);
+            if (isColorThing() && config != null && config.deviceId != null) {
+                bridgeHandler.getColorStateStore().unregister(config.deviceId);
+            }
         }
         bridgeHandler = null;
+        cancelPendingStatesTask();
+        cancelAggregationTask();
+        if (rtsPositionTracker != null) {
+            rtsPositionTracker.dispose();
+            rtsPositionTracker = null;
+        }
         super.dispose();
     }
 
+    @Override
+    public void handleRemoval() {
+        // the saved States of the device would never be restored : free their slots
+        RfLinkBridgeHandler bridge = bridgeHandler;
+        if (bridge != null && config != null) {
+            bridge.getStateSnapshot().remove(config.deviceId);
+        }
+        super.handleRemoval();
+    }
+
+    private void restoreSnapshotStates() {
+        Map<String, RfLinkBridgeStateSnapshot.Record> records = bridgeHandler.getStateSnapshot()
+                .getRecords(config.deviceId);
+        if (records.isEmpty()) {
+            return;
+        }
+        logger.debug("Restoring {} states of thing {}", records.size(), getThing().getUID());
+        // a sensor which stopped transmitting must not be reported with its last (outdated) measures
+        long maxAgeMillis = RfLinkBindingConstants.SENSOR_THING_TYPES_UIDS.contains(getThing().getThingTypeUID())
+                ? TimeUnit.SECONDS.toMillis(bridgeHandler.getConfiguration().persistStateMaxAge)
+                : 0;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, RfLinkBridgeStateSnapshot.Record> record : records.entrySet()) {
+            String channel = record.getKey();
+            State state = record.getValue().getState();
+            if (maxAgeMillis > 0 && now - record.getValue().getTimestamp() > maxAgeMillis) {
+                logger.debug("Not restoring outdated state {} of channel {}", state, channel);
+                continue;
+            }
+            if (isColorThing() && RfLinkBindingConstants.CHANNEL_COLOR.equals(channel) && state instanceof HSBType
+                    && bridgeHandler.getColorStateStore().get(config.deviceId) == null) {
+                bridgeHandler.getColorStateStore().put(config.deviceId, (HSBType) state);
+            }
+            if (config.isRtsPositionTrackerEnabled() && RfLinkBindingConstants.CHANNEL_SHUTTER.equals(channel)) {
+                // the position tracker publishes the position
+                restorePositionTracker(record.getValue(), records.get(RfLinkRtsPositionHandler.SNAPSHOT_DIRECTION));
+            } else if (channelUIDs.containsKey(channel)) {
+                if (stateFilter != null) {
+                    stateFilter.markPublished(channel, state);
+                }
+                // already saved, with the time it was received
+                dispatchState(getChannelUID(channel), state);
+            }
+        }
+    }
+
+    private void restorePositionTracker(RfLinkBridgeStateSnapshot.Record position,
+            RfLinkBridgeStateSnapshot.Record direction) {
+        if (rtsPositionTracker == null && position.getState() instanceof PercentType) {
+            int way = direction != null && direction.getState() instanceof DecimalType
+                    ? ((DecimalType) direction.getState()).intValue()
+                    : 0;
+            rtsPositionTracker = new RfLinkRtsPositionHandler(this, (PercentType) position.getState(), way,
+                    System.currentTimeMillis() - position.getTimestamp());
+        }
+    }
+
     protected void updateThingStates(RfLinkEvent event) {
         Map<String, State> map = event.getStates();
-        for (String channel : map.keySet()) {
-            logger.debug("Update channel: {}, state: {}", channel, map.get(channel));
-            updateState(new ChannelUID(getThing().getUID(), channel), map.get(channel));
+        if (stateAggregator != null) {
+            for (Map.Entry<String, State> channelState : map.entrySet()) {
+                stateAggregator.accumulate(channelState.getKey(), channelState.getValue());
+            }
+        }
+        publishStates(map);
+    }
+
+    private void publishStates(Map<String, State> map) {
+        for (Map.Entry<String, State> channelState : map.entrySet()) {
+            String channel = channelState.getKey();
+            State state = channelState.getValue();
+            if (stateFilter == null || stateFilter.shouldPublish(channel, state)) {
+                logger.debug("Update channel: {}, state: {}", channel, state);
+                updateState(getChannelUID(channel), state);
+            } else {
+                logger.trace("Unchanged channel: {}, state: {}", channel, state);
+            }
+        }
+        schedulePendingStates();
+    }
+
+    private void refreshChannelState(ChannelUID channelUID) {
+        // publish the latest value received, even if it was held back by the channel filters
+        State latestState = stateFilter == null ? null : stateFilter.getLatestState(channelUID.getId());
+        if (latestState != null) {
+            stateFilter.markPublished(channelUID.getId(), latestState);
+            updateState(channelUID, latestState);
+        }
+    }
+
+    private synchronized void schedulePendingStates() {
+        if (stateFilter != null && (pendingStatesTask == null || pendingStatesTask.isDone())) {
+            long delay = stateFilter.getPendingStatesDelay();
+            if (delay >= 0) {
+                pendingStatesTask = scheduler.schedule(this::publishPendingStates, delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private void publishPendingStates() {
+        for (Map.Entry<String, State> channelState : stateFilter.flushPendingStates().entrySet()) {
+            logger.debug("Update pending channel: {}, state: {}", channelState.getKey(), channelState.getValue());
+            updateState(getChannelUID(channelState.getKey()), channelState.getValue());
+        }
+        schedulePendingStates();
+    }
+
+    private synchronized void cancelPendingStatesTask() {
+        if (pendingStatesTask != null) {
+            pendingStatesTask.cancel(false);
+            pendingStatesTask = null;
+        }
+    }
+
+    private synchronized void initializeAggregation() {
+        cancelAggregationTask();
+        if (config.isAggregationEnabled()) {
+            stateAggregator = new RfLinkThingStateAggregator();
+            aggregationTask = scheduler.scheduleAtFixedRate(this::publishAggregatedStates, config.aggregationWindow,
+                    config.aggregationWindow, TimeUnit.SECONDS);
+        } else {
+            stateAggregator = null;
+        }
+    }
+
+    private void publishAggregatedStates() {
+        RfLinkThingStateAggregator aggregator = stateAggregator;
+        if (aggregator != null) {
+            publishStates(aggregator.closeWindow());
+        }
+    }
+
+    private synchronized void cancelAggregationTask() {
+        if (aggregationTask != null) {
+            aggregationTask.cancel(false);
+            aggregationTask = null;
+        }
+    }
+
+    private Map<String, ChannelUID> buildChannelUIDs() {
+        Map<String, ChannelUID> uids = new HashMap<>();
+        for (Channel channel : getThing().getChannels()) {
+            uids.put(channel.getUID().getId(), channel.getUID());
+        }
+        return Collections.unmodifiableMap(uids);
+    }
+
+    /**
+     * @param channelId the channel identifier
+     * @return the ChannelUID of the channel on the current Thing
+     */
+    public ChannelUID getChannelUID(String channelId) {
+        ChannelUID channelUID = channelUIDs.get(channelId);
+        if (channelUID == null) {
+            // channel not declared on the Thing
+            channelUID = new ChannelUID(getThing().getUID(), channelId);
         }
+        return channelUID;
     }
 
     private boolean handleRtsPositionTracker(RfLinkThingHandler handler, RfLinkEvent event) {
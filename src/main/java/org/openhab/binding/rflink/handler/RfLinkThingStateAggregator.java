@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.rflink.RfLinkBindingConstants;
+
+/**
+ * Aggregates the values of the high rate numeric channels (instant power, wind speed, rain rate) over a tumbling
+ * window, and provides their mean, min and max once the window is closed.
+ * <p/>
+ * Each aggregated channel only keeps a count, a sum, a min and a max : accumulating a value is O(1), whatever the
+ * number of values received during the window.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkThingStateAggregator {
+
+    // aggregated channel > { mean channel, min channel, max channel }
+    private static final Map<String, String[]> AGGREGATED_CHANNELS;
+
+    static {
+        Map<String, String[]> channels = new HashMap<>();
+        channels.put(RfLinkBindingConstants.CHANNEL_INSTANT_POWER,
+                new String[] { RfLinkBindingConstants.CHANNEL_INSTANT_POWER_MEAN,
+                        RfLinkBindingConstants.CHANNEL_INSTANT_POWER_MIN,
+                        RfLinkBindingConstants.CHANNEL_INSTANT_POWER_MAX });
+        channels.put(RfLinkBindingConstants.CHANNEL_WIND_SPEED,
+                new String[] { RfLinkBindingConstants.CHANNEL_WIND_SPEED_MEAN,
+                        RfLinkBindingConstants.CHANNEL_WIND_SPEED_MIN,
+                        RfLinkBindingConstants.CHANNEL_WIND_SPEED_MAX });
+        channels.put(RfLinkBindingConstants.CHANNEL_RAIN_RATE,
+                new String[] { RfLinkBindingConstants.CHANNEL_RAIN_RATE_MEAN,
+                        RfLinkBindingConstants.CHANNEL_RAIN_RATE_MIN,
+                        RfLinkBindingConstants.CHANNEL_RAIN_RATE_MAX });
+        AGGREGATED_CHANNELS = Collections.unmodifiableMap(channels);
+    }
+
+    private static class Window {
+        private final String[] aggregateChannels;
+        private long count = 0;
+        private double sum = 0;
+        private double min = 0;
+        private double max = 0;
+
+        private Window(String[] aggregateChannels) {
+            this.aggregateChannels = aggregateChannels;
+        }
+
+        private synchronized void add(double value) {
+            if (count == 0) {
+                min = value;
+                max = value;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+            sum += value;
+            count++;
+        }
+
+        private synchronized void close(Map<String, State> aggregatedStates) {
+            if (count > 0) {
+                aggregatedStates.put(aggregateChannels[0], new DecimalType(sum / count));
+                aggregatedStates.put(aggregateChannels[1], new DecimalType(min));
+                aggregatedStates.put(aggregateChannels[2], new DecimalType(max));
+                count = 0;
+                sum = 0;
+            }
+        }
+    }
+
+    // windows are created upfront : the map is never modified afterwards
+    private final Map<String, Window> windows;
+
+    public RfLinkThingStateAggregator() {
+        Map<String, Window> channelWindows = new HashMap<>();
+        for (Map.Entry<String, String[]> channel : AGGREGATED_CHANNELS.entrySet()) {
+            channelWindows.put(channel.getKey(), new Window(channel.getValue()));
+        }
+        this.windows = Collections.unmodifiableMap(channelWindows);
+    }
+
+    /**
+     * Add a value to the current window of a channel (ignored if the channel is not aggregated)
+     *
+     * @param channelId the channel identifier
+     * @param state     the received State
+     */
+    public void accumulate(String channelId, State state) {
+        Window window = windows.get(channelId);
+        if (window != null && state instanceof DecimalType) {
+            window.add(((DecimalType) state).doubleValue());
+        }
+    }
+
+    /**
+     * Close the current window of all the aggregated channels, and start a new one
+     *
+     * @return the mean/min/max States of the channels which received values during the window
+     */
+    public Map<String, State> closeWindow() {
+        Map<String, State> aggregatedStates = new LinkedHashMap<>();
+        for (Window window : windows.values()) {
+            window.close(aggregatedStates);
+        }
+        return aggregatedStates;
+    }
+}
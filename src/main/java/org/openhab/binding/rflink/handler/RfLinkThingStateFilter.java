@@ -0,0 +1,227 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.binding.rflink.RfLinkBindingConstants;
+import org.openhab.binding.rflink.config.RfLinkChannelConfiguration;
+import org.openhab.binding.rflink.config.RfLinkDeviceConfiguration;
+
+/**
+ * Remembers the last State published on each channel of a Thing, to publish only the effective changes.
+ * <p/>
+ * An unchanged State is still published once the refresh interval has expired, and never suppressed on the channels
+ * configured to be always updated (see {@link RfLinkDeviceConfiguration}).
+ * <p/>
+ * Numeric channels may also define a dead-band and a minimum interval between two published values (see
+ * {@link RfLinkChannelConfiguration}). These filters are explicitly set on the channel : they also apply to the
+ * channels always updated. The dead-band of an angular channel (wind direction) is measured on the circle (359 to 1
+ * is a 2 degrees change), its percentage is relative to a full turn. A value held back by the minimum interval is
+ * pending, and published once the interval expires. The latest received value of each channel is always kept,
+ * whether published or not.
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - per channel dead-band and minimum interval
+ */
+public class RfLinkThingStateFilter {
+
+    private static final String ALL_CHANNELS = "*";
+    private static final double FULL_TURN = 360;
+    // channels holding an angle in degrees
+    private static final Set<String> ANGULAR_CHANNELS = Collections
+            .singleton(RfLinkBindingConstants.CHANNEL_WIND_DIRECTION);
+
+    private final Map<String, PublishedState> publishedStates = new ConcurrentHashMap<>();
+    private final Map<String, State> latestStates = new ConcurrentHashMap<>();
+    private final Map<String, State> pendingStates = new ConcurrentHashMap<>();
+    private final Map<String, ChannelFilter> channelFilters;
+    private final long refreshIntervalNanos;
+    private final Set<String> alwaysUpdatedChannels;
+    private final boolean suppressionEnabled;
+
+    private static class PublishedState {
+        private final State state;
+        private final long publishedAt;
+
+        private PublishedState(State state, long publishedAt) {
+            this.state = state;
+            this.publishedAt = publishedAt;
+        }
+    }
+
+    private static class ChannelFilter {
+        private final double deadband;
+        private final double deadbandPercent;
+        private final long minIntervalNanos;
+        private final boolean angular;
+
+        private ChannelFilter(RfLinkChannelConfiguration config, boolean angular) {
+            this.deadband = config.deadband;
+            this.deadbandPercent = config.deadbandPercent;
+            this.minIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(config.minInterval, 0));
+            this.angular = angular;
+        }
+
+        private boolean isWithinDeadband(State published, State state) {
+            if (published instanceof DecimalType && state instanceof DecimalType) {
+                double publishedValue = ((DecimalType) published).doubleValue();
+                double delta = Math.abs(((DecimalType) state).doubleValue() - publishedValue);
+                if (angular) {
+                    // shortest way around the circle
+                    delta = delta % FULL_TURN;
+                    delta = Math.min(delta, FULL_TURN - delta);
+                    return delta < deadband || delta < FULL_TURN * deadbandPercent / 100;
+                }
+                return delta < deadband || delta < Math.abs(publishedValue) * deadbandPercent / 100;
+            }
+            return false;
+        }
+    }
+
+    public RfLinkThingStateFilter(RfLinkDeviceConfiguration config, Collection<Channel> channels) {
+        this.refreshIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(config.stateRefreshInterval, 0));
+        this.alwaysUpdatedChannels = parseChannels(config.alwaysUpdatedChannels);
+        this.suppressionEnabled = !alwaysUpdatedChannels.contains(ALL_CHANNELS);
+        this.channelFilters = buildChannelFilters(channels);
+    }
+
+    private static Set<String> parseChannels(String channels) {
+        if (channels == null || channels.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> channelSet = new HashSet<>();
+        for (String channel : channels.split(",")) {
+            if (!channel.trim().isEmpty()) {
+                channelSet.add(channel.trim());
+            }
+        }
+        return Collections.unmodifiableSet(channelSet);
+    }
+
+    private static Map<String, ChannelFilter> buildChannelFilters(Collection<Channel> channels) {
+        Map<String, ChannelFilter> filters = new HashMap<>();
+        for (Channel channel : channels) {
+            if (channel.getConfiguration() != null) {
+                RfLinkChannelConfiguration channelConfig = channel.getConfiguration()
+                        .as(RfLinkChannelConfiguration.class);
+                if (channelConfig != null && channelConfig.isFilterEnabled()) {
+                    String channelId = channel.getUID().getId();
+                    filters.put(channelId, new ChannelFilter(channelConfig, ANGULAR_CHANNELS.contains(channelId)));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(filters);
+    }
+
+    /**
+     * Check if a State has to be published on a channel, and register it as published if so
+     *
+     * @param channelId the channel identifier
+     * @param state     the State to publish
+     * @return true if the State has to be published, false if it is unchanged or filtered
+     */
+    public boolean shouldPublish(String channelId, State state) {
+        long now = System.nanoTime();
+        if (state != null) {
+            latestStates.put(channelId, state);
+        }
+        PublishedState published = publishedStates.get(channelId);
+        if (published != null && !isRefreshDue(published, now)) {
+            if (suppressionEnabled && !alwaysUpdatedChannels.contains(channelId)
+                    && Objects.equals(published.state, state)) {
+                pendingStates.remove(channelId);
+                return false;
+            }
+            // explicitly set on the channel : independent of the unchanged State suppression
+            ChannelFilter filter = channelFilters.get(channelId);
+            if (filter != null) {
+                if (filter.isWithinDeadband(published.state, state)) {
+                    pendingStates.remove(channelId);
+                    return false;
+                }
+                if (now - published.publishedAt < filter.minIntervalNanos) {
+                    pendingStates.put(channelId, state);
+                    return false;
+                }
+            }
+        }
+        markPublished(channelId, state, now);
+        return true;
+    }
+
+    private boolean isRefreshDue(PublishedState published, long now) {
+        return refreshIntervalNanos > 0 && now - published.publishedAt >= refreshIntervalNanos;
+    }
+
+    private void markPublished(String channelId, State state, long now) {
+        publishedStates.put(channelId, new PublishedState(state, now));
+        pendingStates.remove(channelId);
+    }
+
+    /**
+     * Register a State as published, bypassing the filters (REFRESH or forced flush)
+     *
+     * @param channelId the channel identifier
+     * @param state     the published State
+     */
+    public void markPublished(String channelId, State state) {
+        markPublished(channelId, state, System.nanoTime());
+    }
+
+    /**
+     * @param channelId the channel identifier
+     * @return the latest State received on the channel (published or not), null if none
+     */
+    public State getLatestState(String channelId) {
+        return latestStates.get(channelId);
+    }
+
+    /**
+     * @return the delay (in nanoseconds) before the next pending State can be published, -1 if none is pending
+     */
+    public long getPendingStatesDelay() {
+        long now = System.nanoTime();
+        long delay = -1;
+        for (String channelId : pendingStates.keySet()) {
+            PublishedState published = publishedStates.get(channelId);
+            ChannelFilter filter = channelFilters.get(channelId);
+            if (published != null && filter != null) {
+                long channelDelay = Math.max(published.publishedAt + filter.minIntervalNanos - now, 0);
+                delay = delay < 0 ? channelDelay : Math.min(delay, channelDelay);
+            }
+        }
+        return delay;
+    }
+
+    /**
+     * @return the pending States that can now be published (registered as published)
+     */
+    public Map<String, State> flushPendingStates() {
+        Map<String, State> flushedStates = new LinkedHashMap<>();
+        for (Map.Entry<String, State> pendingState : pendingStates.entrySet()) {
+            if (shouldPublish(pendingState.getKey(), pendingState.getValue())) {
+                flushedStates.put(pendingState.getKey(), pendingState.getValue());
+            }
+        }
+        return flushedStates;
+    }
+}
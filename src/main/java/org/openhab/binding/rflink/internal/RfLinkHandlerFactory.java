@@ -22,9 +22,11 @@ import org.eclipse.smarthome.core.thing.binding.BaseThingHandlerFactory;
 import org.eclipse.smarthome.core.thing.binding.ThingHandler;
 import org.openhab.binding.rflink.RfLinkBindingConstants;
 import org.openhab.binding.rflink.handler.RfLinkBridgeHandler;
+import org.openhab.binding.rflink.handler.RfLinkRtsGroupHandler;
 import org.openhab.binding.rflink.handler.RfLinkThingHandler;
 import org.openhab.binding.rflink.internal.discovery.RfLinkThingDiscoveryService;
 import org.osgi.framework.ServiceRegistration;
+import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +37,8 @@ import com.google.common.collect.Sets;
  * handlers.
  *
  * @author Cyril Cauchois - Initial contribution
+ * @author cartemere - binding wide timer wheel
+ * @author cartemere - RTS group Thing
  */
 public class RfLinkHandlerFactory extends BaseThingHandlerFactory {
     private Logger logger = LoggerFactory.getLogger(RfLinkHandlerFactory.class);
@@ -44,8 +48,14 @@ public class RfLinkHandlerFactory extends BaseThingHandlerFactory {
      */
     private Map<ThingUID, ServiceRegistration<?>> discoveryServiceRegs = new HashMap<>();
 
+    /**
+     * Timers of all the Things (single thread)
+     */
+    private final RfLinkTimerWheel timerWheel = new RfLinkTimerWheel();
+
     public final static Set<ThingTypeUID> SUPPORTED_THING_TYPES = Sets.union(
-            RfLinkBindingConstants.SUPPORTED_DEVICE_THING_TYPES_UIDS,
+            Sets.union(RfLinkBindingConstants.SUPPORTED_DEVICE_THING_TYPES_UIDS,
+                    RfLinkBindingConstants.SUPPORTED_GROUP_THING_TYPES_UIDS),
             RfLinkBindingConstants.SUPPORTED_BRIDGE_THING_TYPES_UIDS);
 
     @Override
@@ -63,8 +73,10 @@ public class RfLinkHandlerFactory extends BaseThingHandlerFactory {
             RfLinkBridgeHandler handler = new RfLinkBridgeHandler((Bridge) thing);
             registerDeviceDiscoveryService(handler);
             return handler;
+        } else if (RfLinkBindingConstants.THING_TYPE_RTS_GROUP.equals(thingTypeUID)) {
+            return new RfLinkRtsGroupHandler(thing);
         } else if (supportsThingType(thingTypeUID)) {
-            return new RfLinkThingHandler(thing);
+            return new RfLinkThingHandler(thing, timerWheel);
         } else {
             logger.debug("RfLinkHandlerFactory createHandler() thing is not supported -> returning null");
         }
@@ -83,6 +95,12 @@ public class RfLinkHandlerFactory extends BaseThingHandlerFactory {
         }
     }
 
+    @Override
+    protected void deactivate(ComponentContext componentContext) {
+        timerWheel.shutdown();
+        super.deactivate(componentContext);
+    }
+
     private void registerDeviceDiscoveryService(RfLinkBridgeHandler handler) {
         RfLinkThingDiscoveryService discoveryService = new RfLinkThingDiscoveryService(handler);
         discoveryService.activate();
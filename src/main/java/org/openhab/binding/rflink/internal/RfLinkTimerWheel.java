@@ -0,0 +1,256 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.internal;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Binding wide hashed timer wheel, for the short lived timers of the Things (e.g. RTS shutter position tracking).
+ * <p/>
+ * All the timers are driven by a single thread, ticking at a fixed period on the monotonic clock
+ * (System.nanoTime) : the timers are hashed into the wheel buckets by deadline, and all the timers expiring on the
+ * same tick are run in one batch. A timer is fired on the first tick following its deadline (precision = 1 tick).
+ * <p/>
+ * Timers are scheduled from any thread, and only handled by the wheel thread (started on the first timer). The timer
+ * tasks only do bookkeeping : the blocking work they produce (transmission, State publication) is handed off (see
+ * {@link #handOff(Runnable)}), and the work handed off by all the tasks of a tick is run as one batch by a single
+ * hand-off thread, in order. A slow transmission then never delays the next ticks.
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - hand-off of the blocking work, batched per tick
+ * @author cartemere - one shot timers only
+ */
+public class RfLinkTimerWheel {
+
+    public static final long DEFAULT_TICK_MILLIS = 100;
+    public static final int DEFAULT_WHEEL_SIZE = 64; // power of 2
+
+    private Logger logger = LoggerFactory.getLogger(RfLinkTimerWheel.class);
+
+    /**
+     * Handle on a scheduled timer
+     */
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private long remainingRounds;
+        private volatile boolean cancelled = false;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the timer : it will not be run anymore
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickNanos;
+    private final int wheelMask;
+    private final List<List<Timeout>> wheel;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final long startTime = System.nanoTime();
+    private Thread worker = null;
+    private ExecutorService handOffExecutor = null;
+    // work handed off by the tasks of the current tick (wheel thread only)
+    private List<Runnable> tickHandOffs = new ArrayList<>();
+    private volatile boolean running = false;
+    private long tick = 0;
+
+    public RfLinkTimerWheel() {
+        this(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * @param tickMillis period (in milliseconds) of the wheel ticks
+     * @param wheelSize  number of buckets of the wheel (rounded to a power of 2)
+     */
+    public RfLinkTimerWheel(long tickMillis, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) * 2 - 1);
+        this.wheelMask = size - 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedule a task once
+     *
+     * @param task  the task to run on the wheel thread (must not block, see {@link #handOff(Runnable)})
+     * @param delay the delay before running the task
+     * @param unit  the delay unit
+     * @return the timer handle
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return addTimeout(new Timeout(task, System.nanoTime() - startTime + unit.toNanos(delay)));
+    }
+
+    /**
+     * Run some blocking work out of the wheel thread : from a timer task, the work is batched with the work handed off
+     * by the other tasks of the tick, and run by the hand-off thread once the tick is processed (in hand-off order).
+     * From any other thread, the work is run right away.
+     *
+     * @param work the work to run
+     */
+    public void handOff(Runnable work) {
+        if (Thread.currentThread() == worker) {
+            tickHandOffs.add(work);
+        } else {
+            runSafely(work);
+        }
+    }
+
+    private void runSafely(Runnable work) {
+        try {
+            work.run();
+        } catch (Exception e) {
+            logger.error("Timer hand-off failed", e);
+        }
+    }
+
+    private Timeout addTimeout(Timeout timeout) {
+        pendingTimeouts.add(timeout);
+        start();
+        return timeout;
+    }
+
+    private synchronized void start() {
+        if (worker == null) {
+            running = true;
+            handOffExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "RfLink-timer-handoff");
+                thread.setDaemon(true);
+                return thread;
+            });
+            worker = new Thread(this::run, "RfLink-timer");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Stop the wheel thread, and drop all the timers
+     */
+    public synchronized void shutdown() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker = null;
+        }
+        if (handOffExecutor != null) {
+            handOffExecutor.shutdownNow();
+            handOffExecutor = null;
+        }
+        pendingTimeouts.clear();
+    }
+
+    private void run() {
+        logger.debug("Timer wheel started, tick={}ms", TimeUnit.NANOSECONDS.toMillis(tickNanos));
+        while (running) {
+            long tickDeadline = (tick + 1) * tickNanos;
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (Thread.interrupted()) {
+                    break;
+                }
+                continue;
+            }
+            transferPendingTimeouts();
+            expireTimeouts(wheel.get((int) (tick & wheelMask)));
+            flushHandOffs();
+            tick++;
+        }
+        for (List<Timeout> bucket : wheel) {
+            bucket.clear();
+        }
+        logger.debug("Timer wheel stopped");
+    }
+
+    private void flushHandOffs() {
+        if (tickHandOffs.isEmpty()) {
+            return;
+        }
+        List<Runnable> batch = tickHandOffs;
+        tickHandOffs = new ArrayList<>();
+        ExecutorService executor;
+        synchronized (this) {
+            executor = handOffExecutor;
+        }
+        if (executor == null) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                for (Runnable work : batch) {
+                    runSafely(work);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the wheel is shut down
+        }
+    }
+
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (!timeout.cancelled) {
+                addToWheel(timeout);
+            }
+        }
+    }
+
+    private void addToWheel(Timeout timeout) {
+        // never schedule in the past : the current tick is the earliest
+        long expiryTick = Math.max((timeout.deadline + tickNanos - 1) / tickNanos - 1, tick);
+        timeout.remainingRounds = (expiryTick - tick) / wheel.size();
+        wheel.get((int) (expiryTick & wheelMask)).add(timeout);
+    }
+
+    private void expireTimeouts(List<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                iterator.remove();
+                try {
+                    timeout.task.run();
+                } catch (Exception e) {
+                    logger.error("Timer task failed", e);
+                }
+            }
+        }
+    }
+}
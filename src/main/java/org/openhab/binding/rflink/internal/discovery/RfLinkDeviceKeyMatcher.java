@@ -0,0 +1,156 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.internal.discovery;
+
+import java.util.Arrays;
+
+import org.openhab.binding.rflink.message.RfLinkMessage;
+
+/**
+ * Set of device key patterns, compiled into a prefix trie. Matching is case insensitive, and does not allocate.
+ * <p/>
+ * A device key is built as <code>PROTOCOL-ID[-SWITCH]</code>, and a pattern is matched segment by segment :
+ * <ul>
+ * <li><code>X10</code> matches all the devices of the X10 protocol</li>
+ * <li><code>X10-01001a</code> matches all the switches of the X10 device 01001a</li>
+ * <li><code>X10-01001a-2</code> matches a single device key</li>
+ * <li><code>Kaku-*-3</code> : a <code>*</code> segment matches any single segment (here, switch 3 of any Kaku
+ * device)</li>
+ * <li><code>Oregon*</code> : a trailing <code>*</code> matches anything (here, all the Oregon protocols)</li>
+ * </ul>
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkDeviceKeyMatcher {
+
+    private static final char WILDCARD = '*';
+    private static final char SEGMENT_DELIMITER = RfLinkMessage.ID_DELIMITER.charAt(0);
+
+    public static final RfLinkDeviceKeyMatcher EMPTY = new RfLinkDeviceKeyMatcher();
+
+    private static class Node {
+        private char[] labels = new char[0];
+        private Node[] children = new Node[0];
+        // child matching any single segment
+        private Node anySegment = null;
+        // a pattern ends here, on a segment boundary
+        private boolean terminal = false;
+        // a pattern ends here with a trailing wildcard
+        private boolean prefixTerminal = false;
+
+        private Node getChild(char label) {
+            for (int i = 0; i < labels.length; i++) {
+                if (labels[i] == label) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node getOrCreateChild(char label) {
+            Node child = getChild(label);
+            if (child == null) {
+                child = new Node();
+                labels = Arrays.copyOf(labels, labels.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                labels[labels.length - 1] = label;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+    }
+
+    private final Node root = new Node();
+    private int size = 0;
+
+    private RfLinkDeviceKeyMatcher() {
+    }
+
+    /**
+     * Compile a list of patterns
+     *
+     * @param patterns patterns, separated by ',' (may be null or empty)
+     * @return the compiled matcher
+     * @throws IllegalArgumentException if a pattern is not valid
+     */
+    public static RfLinkDeviceKeyMatcher compile(String patterns) {
+        RfLinkDeviceKeyMatcher matcher = new RfLinkDeviceKeyMatcher();
+        if (patterns != null) {
+            for (String pattern : patterns.split(",")) {
+                if (!pattern.trim().isEmpty()) {
+                    matcher.add(pattern.trim());
+                }
+            }
+        }
+        return matcher;
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        int length = pattern.length();
+        int index = 0;
+        while (index < length) {
+            char c = pattern.charAt(index);
+            if (c == WILDCARD) {
+                boolean segmentStart = index == 0 || pattern.charAt(index - 1) == SEGMENT_DELIMITER;
+                if (index == length - 1) {
+                    node.prefixTerminal = true;
+                    size++;
+                    return;
+                } else if (segmentStart && pattern.charAt(index + 1) == SEGMENT_DELIMITER) {
+                    if (node.anySegment == null) {
+                        node.anySegment = new Node();
+                    }
+                    node = node.anySegment;
+                } else {
+                    throw new IllegalArgumentException("Wildcard must be trailing or replace a whole segment in "
+                            + pattern);
+                }
+            } else {
+                node = node.getOrCreateChild(Character.toLowerCase(c));
+            }
+            index++;
+        }
+        node.terminal = true;
+        size++;
+    }
+
+    public boolean matches(String deviceKey) {
+        return deviceKey != null && size > 0 && matches(root, deviceKey, 0);
+    }
+
+    private boolean matches(Node node, String deviceKey, int index) {
+        if (node.prefixTerminal) {
+            return true;
+        }
+        int length = deviceKey.length();
+        if (node.terminal && (index == length || deviceKey.charAt(index) == SEGMENT_DELIMITER)) {
+            return true;
+        }
+        if (index == length) {
+            return false;
+        }
+        if (node.anySegment != null) {
+            int segmentEnd = deviceKey.indexOf(SEGMENT_DELIMITER, index);
+            if (matches(node.anySegment, deviceKey, segmentEnd < 0 ? length : segmentEnd)) {
+                return true;
+            }
+        }
+        Node child = node.getChild(Character.toLowerCase(deviceKey.charAt(index)));
+        return child != null && matches(child, deviceKey, index + 1);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+}
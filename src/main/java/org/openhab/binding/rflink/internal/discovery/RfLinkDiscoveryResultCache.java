@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.internal.discovery;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.smarthome.core.thing.ThingTypeUID;
+
+/**
+ * Bounded LRU/TTL cache of the discovery results already announced to the inbox.
+ * <p/>
+ * A device reporting every few seconds is announced once, and only re-announced when its label or properties change,
+ * or when the announcement is older than the TTL.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkDiscoveryResultCache {
+
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final int capacity;
+    private final Map<String, AnnouncedResult> announcedResults;
+
+    private final LongAdder announcedCount = new LongAdder();
+    private final LongAdder suppressedCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+
+    private static class AnnouncedResult {
+        private final ThingTypeUID thingType;
+        private final String label;
+        private final Map<String, Object> properties;
+        private final long announcedAt;
+
+        private AnnouncedResult(ThingTypeUID thingType, String label, Map<String, Object> properties,
+                long announcedAt) {
+            this.thingType = thingType;
+            this.label = label;
+            this.properties = properties;
+            this.announcedAt = announcedAt;
+        }
+
+        private boolean isSameResult(ThingTypeUID thingType, String label, Map<String, Object> properties) {
+            return Objects.equals(this.thingType, thingType) && Objects.equals(this.label, label)
+                    && Objects.equals(this.properties, properties);
+        }
+    }
+
+    public RfLinkDiscoveryResultCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public RfLinkDiscoveryResultCache(int capacity) {
+        this.capacity = capacity;
+        this.announcedResults = new LinkedHashMap<String, AnnouncedResult>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, AnnouncedResult> eldest) {
+                if (size() > RfLinkDiscoveryResultCache.this.capacity) {
+                    evictedCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Check if a discovery result has to be (re)announced, and register it as announced if so
+     *
+     * @param deviceKey  the discovered device key
+     * @param thingType  the discovered Thing type
+     * @param label      the discovery result label
+     * @param properties the discovery result properties
+     * @param ttlMillis  announcement validity : the result is re-announced once expired (0 = no caching)
+     * @return true if the result has to be announced, false if it has already been announced
+     */
+    public synchronized boolean shouldAnnounce(String deviceKey, ThingTypeUID thingType, String label,
+            Map<String, Object> properties, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        AnnouncedResult announced = announcedResults.get(deviceKey);
+        if (ttlMillis > 0 && announced != null && announced.isSameResult(thingType, label, properties)
+                && now - announced.announcedAt < ttlMillis) {
+            suppressedCount.increment();
+            return false;
+        }
+        announcedResults.put(deviceKey, new AnnouncedResult(thingType, label, properties, now));
+        announcedCount.increment();
+        return true;
+    }
+
+    public synchronized void clear() {
+        announcedResults.clear();
+    }
+
+    public synchronized int size() {
+        return announcedResults.size();
+    }
+
+    public long getAnnouncedCount() {
+        return announcedCount.sum();
+    }
+
+    public long getSuppressedCount() {
+        return suppressedCount.sum();
+    }
+
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkDiscoveryResultCache [size=" + size() + "/" + capacity + ", announced=" + getAnnouncedCount()
+                + ", suppressed=" + getSuppressedCount() + ", evicted=" + getEvictedCount() + "]";
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.internal.discovery;
+
+/**
+ * Bridge level discovery rules : devices matching an ignore rule are not discovered, unless they also match an allow
+ * rule. (see {@link RfLinkDeviceKeyMatcher} for the pattern syntax)
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkDiscoveryRules {
+
+    public static final RfLinkDiscoveryRules EMPTY = new RfLinkDiscoveryRules(RfLinkDeviceKeyMatcher.EMPTY,
+            RfLinkDeviceKeyMatcher.EMPTY);
+
+    private final RfLinkDeviceKeyMatcher ignoreRules;
+    private final RfLinkDeviceKeyMatcher allowRules;
+
+    private RfLinkDiscoveryRules(RfLinkDeviceKeyMatcher ignoreRules, RfLinkDeviceKeyMatcher allowRules) {
+        this.ignoreRules = ignoreRules;
+        this.allowRules = allowRules;
+    }
+
+    /**
+     * @param ignorePatterns patterns of the devices to ignore, separated by ','
+     * @param allowPatterns  patterns of the devices to discover even if ignored, separated by ','
+     * @return the compiled rules
+     * @throws IllegalArgumentException if a pattern is not valid
+     */
+    public static RfLinkDiscoveryRules compile(String ignorePatterns, String allowPatterns) {
+        return new RfLinkDiscoveryRules(RfLinkDeviceKeyMatcher.compile(ignorePatterns),
+                RfLinkDeviceKeyMatcher.compile(allowPatterns));
+    }
+
+    public boolean isDiscoverable(String deviceKey) {
+        return ignoreRules.isEmpty() || !ignoreRules.matches(deviceKey) || allowRules.matches(deviceKey);
+    }
+
+    @Override
+    public String toString() {
+        return "RfLinkDiscoveryRules [ignore=" + ignoreRules.size() + ", allow=" + allowRules.size() + "]";
+    }
+}
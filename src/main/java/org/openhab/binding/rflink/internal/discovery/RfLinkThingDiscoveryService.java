@@ -9,7 +9,9 @@
 package org.openhab.binding.rflink.internal.discovery;
 
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.smarthome.config.discovery.AbstractDiscoveryService;
 import org.eclipse.smarthome.config.discovery.DiscoveryResult;
@@ -37,12 +39,14 @@ import org.slf4j.LoggerFactory;
  * @author Marvyn Zalewski - Added the ability to ignore discoveries
  * @author cartemere - refactor discovery for better error handling and reduce memory consumption
  * @author cartemere - support RTS SHOW input events
+ * @author cartemere - do not re-announce already discovered things
  */
 public class RfLinkThingDiscoveryService extends AbstractDiscoveryService {
 
     private final Logger logger = LoggerFactory.getLogger(RfLinkThingDiscoveryService.class);
 
     private RfLinkBridgeHandler bridgeHandler;
+    private RfLinkDiscoveryResultCache announcedResults = new RfLinkDiscoveryResultCache();
 
     public RfLinkThingDiscoveryService(RfLinkBridgeHandler rflinkBridgeHandler) {
         super(null, 1, false);
@@ -55,6 +59,7 @@ public class RfLinkThingDiscoveryService extends AbstractDiscoveryService {
 
     @Override
     public void deactivate() {
+        logger.debug("Discovery service deactivated : {}", announcedResults);
         bridgeHandler.setDiscoveryService(null);
     }
 
@@ -68,6 +73,8 @@ public class RfLinkThingDiscoveryService extends AbstractDiscoveryService {
         if (bridgeHandler.isDiscoveryEnabled()) {
             try {
                 logger.info("Start scanning registered RTS remotes...");
+                // explicit scan : announce everything again
+                announcedResults.clear();
                 RfLinkPacket packet = new RfLinkPacket(RfLinkPacketType.OUTPUT, "10;RTSSHOW;");
                 bridgeHandler.processPackets(Collections.singleton(packet));
             } catch (RfLinkException e) {
@@ -84,10 +91,16 @@ public class RfLinkThingDiscoveryService extends AbstractDiscoveryService {
                 String identifier = event.getKey();
                 String label = event.getLabel();
                 ThingTypeUID uid = event.getThingType();
+                Map<String, Object> properties = Collections.singletonMap(RfLinkBindingConstants.DEVICE_ID,
+                        identifier);
+                if (!announcedResults.shouldAnnounce(identifier, uid, label, properties, getDiscoveryResultTtl())) {
+                    logger.trace("Thing with id '{}' and label '{}' already announced", identifier, label);
+                    return;
+                }
                 ThingUID thingUID = new ThingUID(uid, bridge, identifier.replace(RfLinkMessage.ID_DELIMITER, "_"));
                 DiscoveryResultBuilder resultBuilder = DiscoveryResultBuilder.create(thingUID);
                 resultBuilder.withLabel(label);
-                resultBuilder.withProperty(RfLinkBindingConstants.DEVICE_ID, identifier);
+                resultBuilder.withProperties(properties);
                 resultBuilder.withBridge(bridge);
                 DiscoveryResult discoveryResult = resultBuilder.build();
                 logger.info("Adding {} with id '{}' and label '{}' to smarthome inbox", thingUID, identifier, label);
@@ -99,4 +112,12 @@ public class RfLinkThingDiscoveryService extends AbstractDiscoveryService {
             }
         }
     }
+
+    private long getDiscoveryResultTtl() {
+        return TimeUnit.SECONDS.toMillis(bridgeHandler.getConfiguration().discoveryResultTtl);
+    }
+
+    public RfLinkDiscoveryResultCache getAnnouncedResults() {
+        return announcedResults;
+    }
 }
@@ -0,0 +1,136 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.internal.jfr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Java Flight Recorder events of the packet lifecycle, from the reception of a frame to the publication of the
+ * States, and from the transmission of a command to its acknowledgement.
+ * <p/>
+ * The event types are not part of this bundle, which is built for Java 8 : they are shipped in the optional JFR
+ * fragment of the binding (built on JDK 11, see the jfr folder), which implements {@link RfLinkJfrSink}. When the
+ * fragment is not installed, or when the jdk.jfr API is not exported to the bundle, each method is a constant test.
+ * Otherwise the events are only filled and committed while a recording enables them (see the JFR settings), the
+ * durations being measured by the binding anyway.
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - event types moved to the JFR fragment
+ */
+public final class RfLinkJfr {
+
+    // implementation of the JFR fragment (same package, attached to the bundle class loader)
+    private static final String SINK_CLASS = "org.openhab.binding.rflink.internal.jfr.RfLinkJfrEvents";
+
+    private static final RfLinkJfrSink SINK = loadSink();
+
+    private RfLinkJfr() {
+    }
+
+    private static RfLinkJfrSink loadSink() {
+        Logger logger = LoggerFactory.getLogger(RfLinkJfr.class);
+        try {
+            Class<? extends RfLinkJfrSink> sinkClass = Class.forName(SINK_CLASS, true, RfLinkJfr.class.getClassLoader())
+                    .asSubclass(RfLinkJfrSink.class);
+            return sinkClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // fragment not installed (ClassNotFoundException), or jdk.jfr not available (NoClassDefFoundError)
+            logger.debug("RFLink JFR fragment or Java Flight Recorder API not available, JFR events disabled : {}",
+                    e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the JFR events can be recorded in this runtime
+     */
+    public static boolean isAvailable() {
+        return SINK != null;
+    }
+
+    /**
+     * @param direction    the packet type (INPUT, ECHO)
+     * @param frame        the raw frame
+     * @param framingNanos time spent reading the frame from the serial port
+     */
+    public static void frameReceived(Object direction, String frame, long framingNanos) {
+        if (SINK != null) {
+            SINK.frameReceived(direction, frame, framingNanos);
+        }
+    }
+
+    /**
+     * @param deviceKey  the device key of the message
+     * @param protocol   the protocol of the message
+     * @param parseNanos time spent parsing the frame
+     */
+    public static void messageParsed(String deviceKey, String protocol, long parseNanos) {
+        if (SINK != null) {
+            SINK.messageParsed(deviceKey, protocol, parseNanos);
+        }
+    }
+
+    /**
+     * @param deviceKey     the device key of the message
+     * @param protocol      the protocol of the message
+     * @param event         the event the message was classified as
+     * @param classifyNanos time spent creating the event from the message
+     */
+    public static void eventClassified(String deviceKey, String protocol, Object event, long classifyNanos) {
+        if (SINK != null) {
+            SINK.eventClassified(deviceKey, protocol, event, classifyNanos);
+        }
+    }
+
+    /**
+     * @param deviceKey    the device of the Thing
+     * @param channelId    the channel updated
+     * @param state        the State published
+     * @param publishNanos time spent in the framework to publish the State
+     */
+    public static void statePublished(String deviceKey, String channelId, Object state, long publishNanos) {
+        if (SINK != null) {
+            SINK.statePublished(deviceKey, channelId, state, publishNanos);
+        }
+    }
+
+    /**
+     * @param frame      the first packet of the batch
+     * @param packets    the number of packets of the batch
+     * @param queueDepth the number of batches waiting for transmission, this one included
+     */
+    public static void txEnqueued(String frame, int packets, int queueDepth) {
+        if (SINK != null) {
+            SINK.txEnqueued(frame, packets, queueDepth);
+        }
+    }
+
+    /**
+     * @param frame      the packet written
+     * @param queueNanos time spent in the transmit queue by the batch of the packet
+     * @param wireNanos  time spent writing the packet (pause between packets included)
+     */
+    public static void txWritten(String frame, long queueNanos, long wireNanos) {
+        if (SINK != null) {
+            SINK.txWritten(frame, queueNanos, wireNanos);
+        }
+    }
+
+    /**
+     * @param frame    the last packet written before the acknowledgement
+     * @param ack      the acknowledgement frame
+     * @param ackNanos time between the write of the packet and the reception of the acknowledgement
+     */
+    public static void ackReceived(String frame, String ack, long ackNanos) {
+        if (SINK != null) {
+            SINK.ackReceived(frame, ack, ackNanos);
+        }
+    }
+}
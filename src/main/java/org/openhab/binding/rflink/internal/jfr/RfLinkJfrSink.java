@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.internal.jfr;
+
+/**
+ * Receiver of the packet lifecycle events (see {@link RfLinkJfr} for the parameters) : implemented by the JFR
+ * fragment of the binding, which is built on JDK 11.
+ *
+ * @author cartemere - Initial contribution
+ */
+public interface RfLinkJfrSink {
+
+    void frameReceived(Object direction, String frame, long framingNanos);
+
+    void messageParsed(String deviceKey, String protocol, long parseNanos);
+
+    void eventClassified(String deviceKey, String protocol, Object event, long classifyNanos);
+
+    void statePublished(String deviceKey, String channelId, Object state, long publishNanos);
+
+    void txEnqueued(String frame, int packets, int queueDepth);
+
+    void txWritten(String frame, long queueNanos, long wireNanos);
+
+    void ackReceived(String frame, String ack, long ackNanos);
+}
@@ -30,6 +30,9 @@ import org.slf4j.LoggerFactory;
  * @author cartemere - review Message management. add Reverse support for Switch/RTS
  * @author cartemere - Massive rework : split message vs event
  * @author cartemere - support RTS SHOW messages
+ * @author cartemere - carry the packet receive timestamps
+ * @author cartemere - expose the sequence number
+ * @author cartemere - read the device key without parsing the whole line
  */
 public class RfLinkMessage {
 
@@ -43,6 +46,10 @@ public class RfLinkMessage {
 
     private final static String NODE_NUMBER_FROM_GATEWAY = "20";
     private final static String NODE_NUMBER_TO_GATEWAY = "10";
+    // 20;XX;Protocol;...
+    private final static int PROTOCOL_OFFSET = 6;
+    private final static String ID_ATTRIBUTE = "ID=";
+    private final static String SWITCH_ATTRIBUTE = "SWITCH=";
 
     private static final String DEVICE_MASK_8 = "00000000";
     private static final String DEVICE_MASK_6 = "000000";
@@ -56,10 +63,14 @@ public class RfLinkMessage {
     protected Map<String, String> attributes = new HashMap<>();
     private boolean eligibleForProcessing = false;
     private boolean eligibleForDiscovery = false;
+    private long receivedNanos;
+    private long receivedMillis;
 
     public RfLinkMessage(RfLinkDeviceConfiguration config, ChannelUID channelUID, Command command)
             throws RfLinkNotImpException, RfLinkException {
         packetType = RfLinkPacketType.OUTPUT;
+        receivedNanos = System.nanoTime();
+        receivedMillis = System.currentTimeMillis();
         String[] elements = config.deviceId.split(ID_DELIMITER);
         if (elements.length > 1) {
             protocol = elements[0];
@@ -74,6 +85,8 @@ public class RfLinkMessage {
     public RfLinkMessage(RfLinkPacket packet) {
         rawMessage = packet.getPacket();
         packetType = packet.getType();
+        receivedNanos = packet.getReceivedNanos();
+        receivedMillis = packet.getReceivedMillis();
         if (isStandardInputMessage()) {
             String[] elements = packet.getPacket().split(FIELDS_DELIMITER, 4);
             int size = elements.length;
@@ -139,6 +152,98 @@ public class RfLinkMessage {
         return getDeviceKey();
     }
 
+    /**
+     * Read the sequence number of a line sent by the transceiver, without parsing the whole line
+     *
+     * @param rawMessage the raw line (20;XX;...)
+     * @return the sequence number (0-255), -1 if the line has none
+     */
+    public static int parseSeqNbr(String rawMessage) {
+        if (rawMessage == null || rawMessage.length() < 6 || !rawMessage.startsWith(NODE_NUMBER_FROM_GATEWAY)
+                || rawMessage.charAt(2) != ';' || rawMessage.charAt(5) != ';') {
+            return -1;
+        }
+        int high = Character.digit(rawMessage.charAt(3), 16);
+        int low = Character.digit(rawMessage.charAt(4), 16);
+        return high < 0 || low < 0 ? -1 : (high << 4) | low;
+    }
+
+    /**
+     * Read the protocol of a line sent by the transceiver, without parsing the whole line
+     *
+     * @param rawMessage the raw line (20;XX;Protocol;...)
+     * @return the protocol (same as {@link #getProtocol()} on the parsed line), null if the line has none
+     */
+    public static String parseProtocol(String rawMessage) {
+        if (parseSeqNbr(rawMessage) < 0) {
+            return null;
+        }
+        int protocolEnd = rawMessage.indexOf(FIELDS_DELIMITER, PROTOCOL_OFFSET);
+        return protocolEnd < 0 ? null : cleanField(rawMessage, PROTOCOL_OFFSET, protocolEnd);
+    }
+
+    /**
+     * Read the device key of a line sent by the transceiver, without parsing the whole line : only the protocol, ID
+     * and SWITCH fields are extracted.
+     *
+     * @param rawMessage the raw line (20;XX;Protocol;ID=...;...)
+     * @return the device key (same as {@link #getDeviceKey()} on the parsed line), null if the line has no ID
+     */
+    public static String parseDeviceKey(String rawMessage) {
+        if (parseSeqNbr(rawMessage) < 0) {
+            return null;
+        }
+        int length = rawMessage.length();
+        int protocolEnd = rawMessage.indexOf(FIELDS_DELIMITER, PROTOCOL_OFFSET);
+        if (protocolEnd < 0) {
+            return null;
+        }
+        String id = null;
+        String switchId = null;
+        int fieldStart = protocolEnd + 1;
+        while (fieldStart < length) {
+            int fieldEnd = rawMessage.indexOf(FIELDS_DELIMITER, fieldStart);
+            if (fieldEnd < 0) {
+                fieldEnd = length;
+            }
+            // same as the attributes map : the last occurrence wins
+            if (rawMessage.startsWith(ID_ATTRIBUTE, fieldStart)) {
+                id = rawMessage.substring(fieldStart + ID_ATTRIBUTE.length(), fieldEnd);
+            } else if (rawMessage.startsWith(SWITCH_ATTRIBUTE, fieldStart)) {
+                switchId = rawMessage.substring(fieldStart + SWITCH_ATTRIBUTE.length(), fieldEnd);
+            }
+            fieldStart = fieldEnd + 1;
+        }
+        if (id == null) {
+            return null;
+        }
+        String deviceKey = cleanField(rawMessage, PROTOCOL_OFFSET, protocolEnd) + ID_DELIMITER + id;
+        return switchId == null ? deviceKey : deviceKey + ID_DELIMITER + switchId;
+    }
+
+    // same as RfLinkDataParser.cleanString, without the regular expression
+    private static String cleanField(String rawMessage, int start, int end) {
+        StringBuilder field = null;
+        for (int i = start; i < end; i++) {
+            char c = rawMessage.charAt(i);
+            boolean valid = (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_'
+                    || c == '-';
+            if (!valid && field == null) {
+                field = new StringBuilder(end - start).append(rawMessage, start, i);
+            } else if (valid && field != null) {
+                field.append(c);
+            }
+        }
+        return field == null ? rawMessage.substring(start, end) : field.toString();
+    }
+
+    /**
+     * @return the sequence number of the message (0-255)
+     */
+    public int getSeqNbr() {
+        return seqNbr & 0xFF;
+    }
+
     public String getRawMessage() {
         return rawMessage;
     }
@@ -147,6 +252,20 @@ public class RfLinkMessage {
         return packetType;
     }
 
+    /**
+     * @return the arrival time of the message (System.nanoTime), to measure the processing latency
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    /**
+     * @return the arrival time of the message (System.currentTimeMillis), to timestamp the observations
+     */
+    public long getReceivedMillis() {
+        return receivedMillis;
+    }
+
     public String getDeviceKey() {
         String deviceIdKey = getBaseDeviceKey();
         if (getDeviceSubId() != null) {
@@ -240,7 +359,8 @@ public class RfLinkMessage {
                 echoPacket = echoPacket.replace(sourceAttribute, targetAttribute);
             }
             if (!getRawMessage().equalsIgnoreCase(echoPacket)) {
-                return new RfLinkPacket(RfLinkPacketType.ECHO, echoPacket);
+                // the echo is the same observation : keep the original arrival time
+                return new RfLinkPacket(RfLinkPacketType.ECHO, echoPacket, receivedNanos, receivedMillis);
             }
         } else {
             // no initial raw message : unable to build echo message
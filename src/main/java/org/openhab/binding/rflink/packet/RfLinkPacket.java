@@ -12,16 +12,40 @@ package org.openhab.binding.rflink.packet;
  * RfLink packet Wrapper
  *
  * @author cartemere - Initial contribution
+ * @author cartemere - receive timestamps
+ * @author cartemere - framing start timestamp
+ * @author cartemere - transmission timestamp
  */
 public class RfLinkPacket {
 
     private RfLinkPacketType type;
     private String packet;
+    // arrival time (creation time for an output packet) : monotonic (System.nanoTime) and wall clock
+    // (System.currentTimeMillis)
+    private long receivedNanos;
+    private long receivedMillis;
+    // time (System.nanoTime) at which the framing of the packet started
+    private long frameStartNanos;
+    // time at which the packet was written to the transceiver (0 if not sent) : monotonic and wall clock
+    private volatile long sentNanos;
+    private volatile long sentMillis;
 
     public RfLinkPacket(RfLinkPacketType type, String packet) {
+        this(type, packet, System.nanoTime(), System.currentTimeMillis());
+    }
+
+    public RfLinkPacket(RfLinkPacketType type, String packet, long receivedNanos, long receivedMillis) {
+        this(type, packet, receivedNanos, receivedMillis, receivedNanos);
+    }
+
+    public RfLinkPacket(RfLinkPacketType type, String packet, long receivedNanos, long receivedMillis,
+            long frameStartNanos) {
         super();
         this.type = type;
         this.packet = packet;
+        this.receivedNanos = receivedNanos;
+        this.receivedMillis = receivedMillis;
+        this.frameStartNanos = frameStartNanos;
     }
 
     public RfLinkPacketType getType() {
@@ -32,6 +56,34 @@ public class RfLinkPacket {
         return packet;
     }
 
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    public long getReceivedMillis() {
+        return receivedMillis;
+    }
+
+    public long getFrameStartNanos() {
+        return frameStartNanos;
+    }
+
+    /**
+     * Stamp the packet as written to the transceiver
+     */
+    public void markSent() {
+        sentMillis = System.currentTimeMillis();
+        sentNanos = System.nanoTime();
+    }
+
+    public long getSentNanos() {
+        return sentNanos;
+    }
+
+    public long getSentMillis() {
+        return sentMillis;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.type;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.StringType;
+
+/**
+ * Shared instances of the States having a small value domain (humidity, dimming level, wind direction, humidity
+ * status...). States are immutable : the same instance can be published by any Thing, instead of allocating a new
+ * (BigDecimal backed) State for each received message.
+ * <p/>
+ * A shared State keeps the representation of the State it replaces : the integer and decimal values have their own
+ * instances (e.g. "21" and "21.0").
+ *
+ * @author cartemere - Initial contribution
+ * @author cartemere - separate instances for the integer and decimal values
+ */
+public class RfLinkStateCache {
+
+    private static final int MAX_CACHED_INTEGER = 100;
+    private static final int WIND_DIRECTION_STEPS = 16;
+    private static final double WIND_DIRECTION_STEP = 360d / WIND_DIRECTION_STEPS;
+
+    private static final DecimalType[] INTEGERS = new DecimalType[MAX_CACHED_INTEGER + 1];
+    private static final DecimalType[] INTEGRAL_DECIMALS = new DecimalType[MAX_CACHED_INTEGER + 1];
+    private static final DecimalType[] WIND_DIRECTIONS = new DecimalType[WIND_DIRECTION_STEPS];
+    private static final Map<String, StringType> STRINGS;
+    static {
+        for (int i = 0; i < INTEGERS.length; i++) {
+            INTEGERS[i] = new DecimalType(i);
+            INTEGRAL_DECIMALS[i] = new DecimalType((double) i);
+        }
+        for (int i = 0; i < WIND_DIRECTIONS.length; i++) {
+            WIND_DIRECTIONS[i] = new DecimalType(i * WIND_DIRECTION_STEP);
+        }
+        Map<String, StringType> strings = new HashMap<>();
+        for (String value : new String[] { "NORMAL", "COMFORT", "DRY", "WET", "UNKNOWN" }) {
+            strings.put(value, new StringType(value));
+        }
+        STRINGS = Collections.unmodifiableMap(strings);
+    }
+
+    private RfLinkStateCache() {
+    }
+
+    /**
+     * @param value an integer value
+     * @return a shared DecimalType if the value is within 0-100, a new one otherwise
+     */
+    public static DecimalType getDecimal(int value) {
+        if (value >= 0 && value <= MAX_CACHED_INTEGER) {
+            return INTEGERS[value];
+        }
+        return new DecimalType(value);
+    }
+
+    /**
+     * @param value a decimal value
+     * @return a shared DecimalType (same representation as new DecimalType(value)) if the value is an integer within
+     *         0-100 or a wind direction step (multiple of 22.5 degrees), a new one otherwise
+     */
+    public static DecimalType getDecimal(double value) {
+        if (value >= 0 && value <= MAX_CACHED_INTEGER && value == (int) value) {
+            return INTEGRAL_DECIMALS[(int) value];
+        }
+        double step = value / WIND_DIRECTION_STEP;
+        if (step >= 0 && step < WIND_DIRECTION_STEPS && step == (int) step) {
+            return WIND_DIRECTIONS[(int) step];
+        }
+        return new DecimalType(value);
+    }
+
+    /**
+     * @param value a String value
+     * @return a shared StringType for the known values (humidity status), a new one otherwise
+     */
+    public static StringType getString(String value) {
+        StringType state = STRINGS.get(value);
+        return state == null ? new StringType(value) : state;
+    }
+}
@@ -8,10 +8,10 @@
  */
 package org.openhab.binding.rflink.type;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.Map;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -31,59 +31,76 @@ import org.slf4j.LoggerFactory;
  * provides various services to manipulate & transcode Type objects and their subtypes (Command, State)
  *
  * @author cartemere - Initial contribution
+ * @author cartemere - immutable hash indexed lookups
  */
 public class RfLinkTypeUtils {
 
     private static Logger logger = LoggerFactory.getLogger(RfLinkTypeUtils.class);
-    private static Map<Type, Collection<Type>> TYPE_SYNONYMS_MAP = new HashMap<>();
-    private static Map<Type, Type> TYPE_ANTONYM_MAP = new HashMap<>();
-    private static Collection<Type> TYPE_ALL = new HashSet<>();
+    // immutable lookup tables, built once : Type > (Class > synonym), Type > antonym, String value > Type
+    private static final Map<Type, Map<Class<?>, Type>> TYPE_SYNONYMS_MAP;
+    private static final Map<Type, Type> TYPE_ANTONYM_MAP;
+    private static final Map<String, Type> TYPE_BY_VALUE_MAP;
     static {
+        Map<Type, Map<Class<?>, Type>> synonymsMap = new HashMap<>();
+        Map<Type, Type> antonymMap = new HashMap<>();
+        Collection<Type> allTypes = new LinkedHashSet<>();
         // declare synonyms (all Types having the same "meaning")
-        declareSynonyms(UpDownType.UP, OnOffType.ON, AllOnOffType.ALLON, OpenClosedType.OPEN,
+        declareSynonyms(synonymsMap, allTypes, UpDownType.UP, OnOffType.ON, AllOnOffType.ALLON, OpenClosedType.OPEN,
                 IncreaseDecreaseType.INCREASE);
-        declareSynonyms(UpDownType.DOWN, OnOffType.OFF, AllOnOffType.ALLOFF, OpenClosedType.CLOSED,
-                IncreaseDecreaseType.DECREASE);
+        declareSynonyms(synonymsMap, allTypes, UpDownType.DOWN, OnOffType.OFF, AllOnOffType.ALLOFF,
+                OpenClosedType.CLOSED, IncreaseDecreaseType.DECREASE);
         // declare antonyms (opposite operation)
-        declareAntonyms(UpDownType.UP, UpDownType.DOWN);
-        declareAntonyms(OnOffType.ON, OnOffType.OFF);
-        declareAntonyms(AllOnOffType.ALLON, AllOnOffType.ALLOFF);
-        declareAntonyms(OpenClosedType.OPEN, OpenClosedType.CLOSED);
-        declareAntonyms(IncreaseDecreaseType.INCREASE, IncreaseDecreaseType.DECREASE);
+        declareAntonyms(antonymMap, allTypes, UpDownType.UP, UpDownType.DOWN);
+        declareAntonyms(antonymMap, allTypes, OnOffType.ON, OnOffType.OFF);
+        declareAntonyms(antonymMap, allTypes, AllOnOffType.ALLON, AllOnOffType.ALLOFF);
+        declareAntonyms(antonymMap, allTypes, OpenClosedType.OPEN, OpenClosedType.CLOSED);
+        declareAntonyms(antonymMap, allTypes, IncreaseDecreaseType.INCREASE, IncreaseDecreaseType.DECREASE);
         // declare other supported types (Actions RfLink should be able to handle)
-        declareSupportedTypes(StopMoveType.MOVE, StopMoveType.STOP);
+        declareSupportedTypes(allTypes, StopMoveType.MOVE, StopMoveType.STOP);
+
+        Map<String, Type> typeByValueMap = new HashMap<>();
+        for (Type type : allTypes) {
+            typeByValueMap.putIfAbsent(type.toString(), type);
+        }
+        TYPE_SYNONYMS_MAP = Collections.unmodifiableMap(synonymsMap);
+        TYPE_ANTONYM_MAP = Collections.unmodifiableMap(antonymMap);
+        TYPE_BY_VALUE_MAP = Collections.unmodifiableMap(typeByValueMap);
     }
 
     // only used for init
-    private static void declareSynonyms(Type... synonyms) {
-        Collection<Type> synonymCollection = new ArrayList<Type>();
+    private static void declareSynonyms(Map<Type, Map<Class<?>, Type>> synonymsMap, Collection<Type> allTypes,
+            Type... synonyms) {
+        Map<Class<?>, Type> synonymByClass = new HashMap<>();
+        for (Type type : synonyms) {
+            synonymByClass.putIfAbsent(type.getClass(), type);
+        }
+        synonymByClass = Collections.unmodifiableMap(synonymByClass);
         for (Type type : synonyms) {
-            synonymCollection.add(type);
-            TYPE_SYNONYMS_MAP.put(type, synonymCollection);
+            synonymsMap.put(type, synonymByClass);
         }
-        declareSupportedTypes(synonyms);
+        declareSupportedTypes(allTypes, synonyms);
     }
 
-    private static void declareAntonyms(Type firstType, Type antonym) {
-        TYPE_ANTONYM_MAP.put(firstType, antonym);
-        TYPE_ANTONYM_MAP.put(antonym, firstType);
-        TYPE_ALL.add(firstType);
-        TYPE_ALL.add(antonym);
+    private static void declareAntonyms(Map<Type, Type> antonymMap, Collection<Type> allTypes, Type firstType,
+            Type antonym) {
+        antonymMap.put(firstType, antonym);
+        antonymMap.put(antonym, firstType);
+        allTypes.add(firstType);
+        allTypes.add(antonym);
     }
 
-    private static void declareSupportedTypes(Type... types) {
+    private static void declareSupportedTypes(Collection<Type> allTypes, Type... types) {
         for (Type type : types) {
-            TYPE_ALL.add(type);
+            allTypes.add(type);
         }
     }
 
     public static Type getSynonym(Type inputType, Class expectedOutputClass) {
-        Collection<Type> synonyms = TYPE_SYNONYMS_MAP.get(inputType);
+        Map<Class<?>, Type> synonyms = TYPE_SYNONYMS_MAP.get(inputType);
         if (synonyms != null) {
-            for (Type synonym : synonyms) {
-                if (synonym.getClass().equals(expectedOutputClass)) {
-                    return synonym;
-                }
+            Type synonym = synonyms.get(expectedOutputClass);
+            if (synonym != null) {
+                return synonym;
             }
         }
         return UnDefType.UNDEF;
@@ -102,12 +119,8 @@ public class RfLinkTypeUtils {
     }
 
     public static Type getTypeFromStringValue(String typeValue) {
-        for (Type type : TYPE_ALL) {
-            if (type.toString().equals(typeValue)) {
-                return type;
-            }
-        }
-        return UnDefType.UNDEF;
+        Type type = typeValue == null ? null : TYPE_BY_VALUE_MAP.get(typeValue);
+        return type == null ? UnDefType.UNDEF : type;
     }
 
     /**
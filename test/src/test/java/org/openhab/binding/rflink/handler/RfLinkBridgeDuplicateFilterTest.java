@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2010-2018 by the respective copyright holders.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ */
+package org.openhab.binding.rflink.handler;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.rflink.packet.RfLinkPacket;
+import org.openhab.binding.rflink.packet.RfLinkPacketType;
+
+/**
+ * Tests of the {@link RfLinkBridgeDuplicateFilter}, with the default 300ms window.
+ *
+ * @author cartemere - Initial contribution
+ */
+public class RfLinkBridgeDuplicateFilterTest {
+
+    private RfLinkBridgeDuplicateFilter filter;
+
+    @Before
+    public void setUp() {
+        filter = new RfLinkBridgeDuplicateFilter();
+    }
+
+    private boolean isDuplicate(String frame, long millis) {
+        return filter.isDuplicate(new RfLinkPacket(RfLinkPacketType.INPUT, frame, 0, 0),
+                TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    @Test
+    public void repeatedCopiesAreDropped() {
+        assertFalse(isDuplicate("20;01;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 0));
+        // same payload, new sequence number
+        assertTrue(isDuplicate("20;02;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 50));
+        assertTrue(isDuplicate("20;03;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 100));
+    }
+
+    @Test
+    public void alternatingCommandsAreKept() {
+        assertFalse(isDuplicate("20;01;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 0));
+        assertFalse(isDuplicate("20;02;NewKaku;ID=31c42a;SWITCH=2;CMD=OFF;", 100));
+        assertFalse(isDuplicate("20;03;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 200));
+    }
+
+    @Test
+    public void steadyStreamGetsOneFramePerWindow() {
+        assertFalse(isDuplicate("20;01;Cresta;ID=5c01;WINSP=0014;", 0));
+        assertTrue(isDuplicate("20;02;Cresta;ID=5c01;WINSP=0014;", 100));
+        assertTrue(isDuplicate("20;03;Cresta;ID=5c01;WINSP=0014;", 200));
+        assertFalse(isDuplicate("20;04;Cresta;ID=5c01;WINSP=0014;", 300));
+        assertTrue(isDuplicate("20;05;Cresta;ID=5c01;WINSP=0014;", 400));
+        assertFalse(isDuplicate("20;06;Cresta;ID=5c01;WINSP=0014;", 600));
+    }
+
+    @Test
+    public void devicesAreFilteredIndependently() {
+        assertFalse(isDuplicate("20;01;NewKaku;ID=31c42a;SWITCH=1;CMD=ON;", 0));
+        assertFalse(isDuplicate("20;02;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 10));
+        assertTrue(isDuplicate("20;03;NewKaku;ID=31c42a;SWITCH=1;CMD=ON;", 20));
+        assertTrue(isDuplicate("20;04;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 30));
+    }
+
+    @Test
+    public void gatewayRepliesAreNotFiltered() {
+        assertFalse(isDuplicate("20;01;OK;", 0));
+        assertFalse(isDuplicate("20;02;OK;", 50));
+        assertFalse(isDuplicate("20;03;OK;", 100));
+        assertFalse(isDuplicate("20;04;Debug;RTS P1;a729000068622e;", 110));
+        assertFalse(isDuplicate("20;05;Debug;RTS P1;a729000068622e;", 120));
+    }
+
+    @Test
+    public void outputPacketsAreNotFiltered() {
+        RfLinkPacket packet = new RfLinkPacket(RfLinkPacketType.OUTPUT, "10;NewKaku;31c42a;2;ON;");
+        assertFalse(filter.isDuplicate(packet, 0));
+        assertFalse(filter.isDuplicate(packet, 10));
+    }
+
+    @Test
+    public void disabledWindowKeepsEveryCopy() {
+        filter.setWindow(0);
+        assertFalse(isDuplicate("20;01;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 0));
+        assertFalse(isDuplicate("20;02;NewKaku;ID=31c42a;SWITCH=2;CMD=ON;", 50));
+    }
+}